@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.config.DatasetProperties;
+import ru.yandex.practicum.filmorate.dataset.DatasetGenerator;
+import ru.yandex.practicum.filmorate.repository.DbFilmRepository;
+import ru.yandex.practicum.filmorate.repository.DbGenreRepository;
+import ru.yandex.practicum.filmorate.repository.DbMpaRepository;
+import ru.yandex.practicum.filmorate.repository.DbUserRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryUserRepository;
+import ru.yandex.practicum.filmorate.repository.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.repository.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.repository.mappers.MpaRowMapper;
+import ru.yandex.practicum.filmorate.repository.mappers.UserRowMapper;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * H2 in-memory database seeded by {@link DatasetGenerator} and in-memory repositories holding a copy of it.
+ * Sizes are JMH parameters, e.g. {@code -p films=100000 -p users=50000}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkData {
+
+    @Param({"1000"})
+    public int films;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"20"})
+    public int likesPerUser;
+
+    @Param({"20"})
+    public int friendsPerUser;
+
+    DbFilmRepository dbFilmRepository;
+    DbUserRepository dbUserRepository;
+    InMemoryFilmRepository inMemoryFilmRepository;
+    InMemoryUserRepository inMemoryUserRepository;
+
+    private DriverManagerDataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "sa", "password");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        GenreRowMapper genreRowMapper = new GenreRowMapper();
+        MpaRowMapper mpaRowMapper = new MpaRowMapper();
+        DbMpaRepository mpaRepository = new DbMpaRepository(jdbcTemplate, mpaRowMapper);
+        DbGenreRepository genreRepository = new DbGenreRepository(jdbcTemplate, genreRowMapper);
+        mpaRepository.warmUp();
+        genreRepository.warmUp();
+
+        dbUserRepository = new DbUserRepository(jdbcTemplate, new UserRowMapper());
+        dbFilmRepository = new DbFilmRepository(jdbcTemplate, mpaRepository, genreRepository,
+                new FilmRowMapper(genreRowMapper, mpaRowMapper), dbUserRepository);
+        inMemoryUserRepository = new InMemoryUserRepository();
+        inMemoryFilmRepository = new InMemoryFilmRepository(inMemoryUserRepository);
+
+        seed(jdbcTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    int randomFilmId() {
+        return ThreadLocalRandom.current().nextInt(1, films + 1);
+    }
+
+    int randomUserId() {
+        return ThreadLocalRandom.current().nextInt(1, users + 1);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        DatasetProperties properties = new DatasetProperties();
+        properties.setUsers(users);
+        properties.setFilms(films);
+        properties.setLikesPerUser(likesPerUser);
+        properties.setFriendsPerUser(friendsPerUser);
+        new DatasetGenerator(jdbcTemplate, properties).generate();
+
+        // the fresh database hands out ids from 1, just like the in-memory repositories
+        dbUserRepository.exportAll(user -> inMemoryUserRepository.create(user.toBuilder().id(null).build()));
+        dbFilmRepository.exportAll(film -> inMemoryFilmRepository.create(film.toBuilder().id(null).build()));
+        jdbcTemplate.query("SELECT film_id, user_id FROM \"film_like\"", rs -> {
+            inMemoryFilmRepository.addLike(rs.getInt("film_id"), rs.getInt("user_id"));
+        });
+        jdbcTemplate.query("SELECT user_id, friend_id FROM \"friendship\"", rs -> {
+            inMemoryUserRepository.addFriend(rs.getInt("user_id"), rs.getInt("friend_id"));
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Film read paths against H2 and the in-memory repository.
+ * Throughput shows ops/ms, SampleTime reports latency percentiles (p50, p99, ...).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmRepositoryBenchmark {
+
+    private static final int POPULAR_COUNT = 10;
+
+    @Benchmark
+    public List<Film> dbGetPopularFilms(BenchmarkData data) {
+        return data.dbFilmRepository.getPopularFilms(POPULAR_COUNT);
+    }
+
+    @Benchmark
+    public List<Film> dbFindAll(BenchmarkData data) {
+        return data.dbFilmRepository.findAll();
+    }
+
+    @Benchmark
+    public Optional<Film> dbGetFilmWithDetails(BenchmarkData data) {
+        return data.dbFilmRepository.getFilmWithDetails(data.randomFilmId());
+    }
+
+    @Benchmark
+    public List<Film> inMemoryGetPopularFilms(BenchmarkData data) {
+        return data.inMemoryFilmRepository.getPopularFilms(POPULAR_COUNT);
+    }
+
+    @Benchmark
+    public List<Film> inMemoryFindAll(BenchmarkData data) {
+        return data.inMemoryFilmRepository.findAll();
+    }
+
+    @Benchmark
+    public Optional<Film> inMemoryGetById(BenchmarkData data) {
+        return data.inMemoryFilmRepository.getById(data.randomFilmId());
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.UserRepository;
+import ru.yandex.practicum.filmorate.service.FilmLikeService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput of GET /films and GET /films/popular with the default logging setup
+ * (Logbook trace, JDBC statement logging, synchronous console) versus the prod profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class LoggingProfileBenchmark {
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    @Param({"100"})
+    public int films;
+
+    @Param({"100"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest filmsRequest;
+    private HttpRequest popularRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:logging-benchmark;DB_CLOSE_DELAY=-1");
+        if (!"default".equals(profile)) {
+            builder.profiles(profile);
+        }
+        context = builder.run();
+        seed();
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newHttpClient();
+        filmsRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/films")).build();
+        popularRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/films/popular?count=10")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getFilms() throws IOException, InterruptedException {
+        return client.send(filmsRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public String getPopularFilms() throws IOException, InterruptedException {
+        return client.send(popularRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private void seed() {
+        FilmRepository filmRepository = context.getBean(FilmRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        FilmLikeService filmLikeService = context.getBean(FilmLikeService.class);
+
+        for (int i = 1; i <= users; i++) {
+            userRepository.create(new User(null, "User " + i, "user" + i, "user" + i + "@example.com",
+                    LocalDate.of(1990, 1, 1)));
+        }
+        for (int i = 1; i <= films; i++) {
+            Film film = new Film(null, "Film " + i, "Description " + i, LocalDate.of(2000, 1, 1),
+                    Duration.ofMinutes(90));
+            film.setMpa(new Mpa(1, null));
+            filmRepository.create(film);
+        }
+        context.getBean(PopularFilmsIndex.class).reload();
+        for (int userId = 1; userId <= users; userId++) {
+            for (int filmId = 1; filmId <= films; filmId += userId) {
+                filmLikeService.addLike(filmId, userId);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Friends read paths against H2 and the in-memory repository.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Benchmark
+    public List<Integer> dbGetCommonFriends(BenchmarkData data) {
+        return data.dbUserRepository.getCommonFriends(data.randomUserId(), data.randomUserId());
+    }
+
+    @Benchmark
+    public List<User> dbGetFriends(BenchmarkData data) {
+        return data.dbUserRepository.findAllByIds(data.dbUserRepository.getFriends(data.randomUserId()));
+    }
+
+    @Benchmark
+    public List<Integer> inMemoryGetCommonFriends(BenchmarkData data) {
+        return data.inMemoryUserRepository.getCommonFriends(data.randomUserId(), data.randomUserId());
+    }
+
+    @Benchmark
+    public List<User> inMemoryGetFriends(BenchmarkData data) {
+        return data.inMemoryUserRepository.findAllByIds(data.inMemoryUserRepository.getFriends(data.randomUserId()));
+    }
+}
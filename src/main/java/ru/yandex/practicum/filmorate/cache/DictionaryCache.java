@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through in-memory copy of a small dictionary table (genres, MPA ratings).
+ * The whole table is loaded at once and served from memory until {@link #invalidate()} is called.
+ * A lookup that finds the dictionary loaded counts as a hit, one that has to load it first as a miss.
+ */
+@Slf4j
+public class DictionaryCache<T> {
+
+    @Getter
+    private final String name;
+    private final Supplier<List<T>> loader;
+    private final Function<T, Integer> idExtractor;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Map<Integer, T> entries;
+    private volatile int contentHash;
+
+    public DictionaryCache(String name, Supplier<List<T>> loader, Function<T, Integer> idExtractor) {
+        this.name = name;
+        this.loader = loader;
+        this.idExtractor = idExtractor;
+    }
+
+    public Optional<T> get(Integer id) {
+        return Optional.ofNullable(entries().get(id));
+    }
+
+    public List<T> values() {
+        return List.copyOf(entries().values());
+    }
+
+    public Set<Integer> existingIds(Collection<Integer> ids) {
+        Map<Integer, T> snapshot = entries();
+        return ids.stream()
+                .filter(snapshot::containsKey)
+                .collect(Collectors.toSet());
+    }
+
+    public synchronized void load() {
+        Map<Integer, T> loaded = new LinkedHashMap<>();
+        for (T entry : loader.get()) {
+            loaded.put(idExtractor.apply(entry), entry);
+        }
+        // entries compare by id only, so hash their full string form to notice renames
+        contentHash = loaded.values().stream().map(String::valueOf).toList().hashCode();
+        entries = Collections.unmodifiableMap(loaded);
+
+        log.debug("Dictionary {} loaded with {} entries", name, loaded.size());
+    }
+
+    public void invalidate() {
+        entries = null;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Hash of the current entries; changes whenever a reload brings different content.
+     */
+    public int contentHash() {
+        entries();
+        return contentHash;
+    }
+
+    public int size() {
+        Map<Integer, T> snapshot = entries;
+        return snapshot == null ? 0 : snapshot.size();
+    }
+
+    private Map<Integer, T> entries() {
+        Map<Integer, T> snapshot = entries;
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+
+        misses.increment();
+        synchronized (this) {
+            if (entries == null) {
+                load();
+            }
+            return entries;
+        }
+    }
+}
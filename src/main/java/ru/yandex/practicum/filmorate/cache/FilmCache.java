@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import ru.yandex.practicum.filmorate.config.FilmCacheProperties;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Size-bounded near cache of fully loaded films by id. Caffeine admits and evicts by W-TinyLFU, so films
+ * read again and again stay while one-off reads do not push them out.
+ * <p>
+ * Cached films are shared between requests and must not be modified. Writers call {@link #invalidate(Integer)}
+ * after their transaction commits; a load still running at that moment is dropped as well.
+ */
+public class FilmCache {
+
+    @Getter
+    private final Cache<Integer, Film> cache;
+
+    public FilmCache(FilmCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached film, or the one the loader finds; films the loader does not find are not cached
+     */
+    public Optional<Film> get(Integer filmId, Function<Integer, Optional<Film>> loader) {
+        return Optional.ofNullable(cache.get(filmId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public void invalidate(Integer filmId) {
+        cache.invalidate(filmId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
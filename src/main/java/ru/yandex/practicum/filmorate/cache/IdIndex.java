@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bitmap of the ids stored in a table with a dense, increasing generated id (one bit per id, 10 million ids take
+ * 1.25 MB). Loaded on first use; writers {@link #add(Integer)} every id they insert, before their transaction commits.
+ * <p>
+ * Rows may also be inserted past this instance (another instance, an H2 console session, a manual fix), so only ids
+ * up to the highest known (loaded or added) one are answered from memory: an id that is not set there does not exist
+ * and can be rejected without a query. A larger id loads the ids stored after the highest known one, at most once per
+ * catch-up interval; in between larger ids are rejected from memory too, so a row inserted past this instance may be
+ * reported missing for up to that interval. A row another writer commits below the highest known id is missed until
+ * the next {@link #load()}.
+ * <p>
+ * A set id may still be missing (a rolled back insert, a deleted row), so positives have to be confirmed by the
+ * database. Bits are never cleared: loads merge the table into the current bitmap.
+ */
+@Slf4j
+public class IdIndex {
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    @Getter
+    private final String name;
+    private final BiConsumer<Integer, IntConsumer> loader;
+    private final Supplier<Duration> catchUpInterval;
+    private final LongSupplier nanoTime;
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong lastCatchUp = new AtomicLong(NEVER);
+    private volatile AtomicLongArray words;
+    private volatile int loadedMax = -1;
+
+    /**
+     * @param loader          passes every stored id greater than the given one to the consumer
+     * @param catchUpInterval read on every catch-up, so it may be bound after the index is created
+     */
+    public IdIndex(String name, BiConsumer<Integer, IntConsumer> loader, Supplier<Duration> catchUpInterval) {
+        this(name, loader, catchUpInterval, System::nanoTime);
+    }
+
+    IdIndex(String name, BiConsumer<Integer, IntConsumer> loader, Supplier<Duration> catchUpInterval,
+            LongSupplier nanoTime) {
+        this.name = name;
+        this.loader = loader;
+        this.catchUpInterval = catchUpInterval;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @return {@code false} if the id certainly does not exist
+     */
+    public boolean mightContain(Integer id) {
+        if (id != null && id >= 0) {
+            if (isSet(words(), id) || id > loadedMax && catchUp(id)) {
+                return true;
+            }
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public synchronized void add(Integer id) {
+        words = set(words(), id);
+        loadedMax = Math.max(loadedMax, id);
+    }
+
+    public synchronized void load() {
+        loadAfter(-1);
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private boolean catchUp(int id) {
+        long now = nanoTime.getAsLong();
+        long last = lastCatchUp.get();
+        boolean due = last == NEVER || now - last >= catchUpInterval.get().toNanos();
+        // one caller per interval loads, the others do not queue up behind it
+        if (!due || !lastCatchUp.compareAndSet(last, now)) {
+            return isSet(words, id);
+        }
+        synchronized (this) {
+            loadAfter(loadedMax);
+            return isSet(words, id);
+        }
+    }
+
+    private void loadAfter(int afterId) {
+        AtomicLongArray[] loaded = {words == null ? new AtomicLongArray(0) : words};
+        int[] max = {loadedMax};
+        int[] count = {0};
+        loader.accept(afterId, id -> {
+            loaded[0] = set(loaded[0], id);
+            max[0] = Math.max(max[0], id);
+            count[0]++;
+        });
+        words = loaded[0];
+        loadedMax = max[0];
+
+        log.debug("Id index {} loaded {} ids after {}", name, count[0], afterId);
+    }
+
+    private AtomicLongArray words() {
+        AtomicLongArray snapshot = words;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (words == null) {
+                load();
+            }
+            return words;
+        }
+    }
+
+    private static boolean isSet(AtomicLongArray words, int id) {
+        int word = id >>> 6;
+        return word < words.length() && (words.get(word) & (1L << id)) != 0;
+    }
+
+    private static AtomicLongArray set(AtomicLongArray words, int id) {
+        int word = id >>> 6;
+        AtomicLongArray target = words;
+        if (word >= words.length()) {
+            // grow geometrically, so loading ids in order copies the bitmap only a logarithmic number of times
+            target = new AtomicLongArray(Math.max(word + 1, words.length() * 2));
+            for (int i = 0; i < words.length(); i++) {
+                target.set(i, words.get(i));
+            }
+        }
+        target.getAndAccumulate(word, 1L << id, (current, bit) -> current | bit);
+        return target;
+    }
+}
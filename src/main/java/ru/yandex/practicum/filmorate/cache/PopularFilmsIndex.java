@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-process ranking of films by likes count, kept in step with film_like writes.
+ * Answers top-N requests in O(count) instead of re-aggregating likes in the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularFilmsIndex {
+
+    private static final Comparator<Rank> BY_LIKES_DESC = Comparator.comparingInt(Rank::likes).reversed()
+            .thenComparingInt(Rank::filmId);
+
+    private final Map<Integer, Integer> likesByFilm = new ConcurrentHashMap<>();
+    private final Set<Rank> ranking = new ConcurrentSkipListSet<>(BY_LIKES_DESC);
+    private final FilmRepository filmRepository;
+
+    private record Rank(int filmId, int likes) {
+    }
+
+    @PostConstruct
+    public void reload() {
+        Map<Integer, Integer> likesCounts = filmRepository.getLikesCounts();
+
+        likesByFilm.clear();
+        ranking.clear();
+        likesCounts.forEach(this::set);
+
+        log.debug("Popular films index loaded with {} films", likesCounts.size());
+    }
+
+    public void register(Integer filmId) {
+        likesByFilm.computeIfAbsent(filmId, id -> {
+            ranking.add(new Rank(id, 0));
+            return 0;
+        });
+    }
+
+    public boolean contains(Integer filmId) {
+        return likesByFilm.containsKey(filmId);
+    }
+
+    public void increment(Integer filmId) {
+        adjust(filmId, 1);
+    }
+
+    public void decrement(Integer filmId) {
+        adjust(filmId, -1);
+    }
+
+    public void adjust(Integer filmId, int delta) {
+        likesByFilm.compute(filmId, (id, likes) -> {
+            int current = likes == null ? 0 : likes;
+            int updated = Math.max(current + delta, 0);
+
+            ranking.add(new Rank(id, updated));
+            if (likes != null && updated != current) {
+                ranking.remove(new Rank(id, current));
+            }
+            return updated;
+        });
+    }
+
+    public List<Integer> top(int count) {
+        // count comes from the request, so the list is sized by the films that can actually be returned
+        List<Integer> filmIds = new ArrayList<>(Math.clamp(count, 0, likesByFilm.size()));
+        Set<Integer> seen = new HashSet<>();
+
+        // a film may briefly appear twice while its rank is being moved
+        for (Rank rank : ranking) {
+            if (filmIds.size() >= count) {
+                break;
+            }
+            if (seen.add(rank.filmId())) {
+                filmIds.add(rank.filmId());
+            }
+        }
+        return filmIds;
+    }
+
+    private void set(Integer filmId, Integer likes) {
+        likesByFilm.put(filmId, likes);
+        ranking.add(new Rank(filmId, likes));
+    }
+}
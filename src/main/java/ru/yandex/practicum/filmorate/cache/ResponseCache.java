@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Rendered UTF-8 JSON bodies of hot read endpoints, so repeated requests skip serialization.
+ * <p>
+ * Entries belong to a group (an endpoint) and are keyed by its parameters and the group generation.
+ * {@link #invalidate(String)} moves the group to a new generation instead of removing entries, so a body still
+ * being rendered from old data when a write happens lands under the old key and is never served; unreachable
+ * entries are evicted by weight. Parameters should include the version of the data the body is built from
+ * when there is one, and must be bounded: the cache holds at most {@value #MAXIMUM_WEIGHT} bytes of keys and bodies.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+
+    public static final String POPULAR_FILMS = "films.popular";
+    public static final String GENRES = "genres";
+    public static final String MPA = "mpa";
+
+    static final long MAXIMUM_WEIGHT = 16 * 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    @Getter
+    private final Cache<String, byte[]> cache = Caffeine.newBuilder()
+            .maximumWeight(MAXIMUM_WEIGHT)
+            .weigher((String key, byte[] body) -> 2 * key.length() + body.length)
+            .recordStats()
+            .build();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Concurrent callers missing the same key wait for one supplier call instead of running their own.
+     *
+     * @return the cached body, or the rendered result of the supplier; the array must not be modified
+     */
+    public byte[] get(String group, String params, Supplier<?> body) {
+        String key = group + "@" + generation(group).get() + "?" + params;
+        return cache.get(key, ignored -> render(body.get()));
+    }
+
+    public void invalidate(String group) {
+        generation(group).incrementAndGet();
+    }
+
+    private AtomicLong generation(String group) {
+        return generations.computeIfAbsent(group, ignored -> new AtomicLong());
+    }
+
+    private byte[] render(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot render response body", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.importer.CatalogImportRunner;
+import ru.yandex.practicum.filmorate.importer.CatalogImporter;
+import ru.yandex.practicum.filmorate.repository.DbGenreRepository;
+import ru.yandex.practicum.filmorate.repository.DbMpaRepository;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+@Configuration
+@ConditionalOnProperty(name = "filmorate.catalog-import.file")
+@EnableConfigurationProperties(CatalogImportProperties.class)
+public class CatalogImportConfig {
+
+    @Bean
+    public CatalogImportRunner catalogImportRunner(FilmRepository filmRepository,
+                                                   DbMpaRepository mpaRepository,
+                                                   DbGenreRepository genreRepository,
+                                                   Validator validator,
+                                                   PopularFilmsIndex popularFilmsIndex,
+                                                   CatalogImportProperties properties) {
+        CatalogImporter importer = new CatalogImporter(filmRepository, validator,
+                mpaRepository.getAllMpa(), genreRepository.findAll(), properties);
+        return new CatalogImportRunner(importer, popularFilmsIndex, properties);
+    }
+}
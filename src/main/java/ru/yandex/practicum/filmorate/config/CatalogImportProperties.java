@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+
+/**
+ * CSV catalog import, runs once on startup when {@code filmorate.catalog-import.file} is set.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "filmorate.catalog-import")
+public class CatalogImportProperties {
+
+    private Path file;
+
+    /**
+     * Data rows (after the header) to skip, taken from the last progress report when restarting an import.
+     */
+    @Min(0)
+    private long skipRows = 0;
+
+    /**
+     * Rows validated together and written in one transaction.
+     */
+    @Min(1)
+    private int batchSize = 5_000;
+
+    /**
+     * Rows between two progress reports.
+     */
+    @Min(1)
+    private long progressInterval = 100_000;
+}
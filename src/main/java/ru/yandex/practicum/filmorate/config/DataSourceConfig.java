@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceTuningProperties.class)
+public class DataSourceConfig {
+
+    private static final String H2_URL_PREFIX = "jdbc:h2:";
+
+    @Bean
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                       DataSourceTuningProperties tuningProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        DataSourceTuningProperties.Pool pool = tuningProperties.getPool();
+        dataSource.setPoolName("filmorate");
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        dataSource.setJdbcUrl(withH2Settings(dataSource.getJdbcUrl(), tuningProperties.getH2()));
+        return dataSource;
+    }
+
+    static String withH2Settings(String url, DataSourceTuningProperties.H2 h2) {
+        if (url == null || !url.startsWith(H2_URL_PREFIX)) {
+            return url;
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("CACHE_SIZE", h2.getCacheSizeKb());
+        settings.put("QUERY_CACHE_SIZE", h2.getQueryCacheSize());
+        settings.put("LOCK_TIMEOUT", h2.getLockTimeout().toMillis());
+        if (!url.startsWith(H2_URL_PREFIX + "mem:")) {
+            settings.put("WRITE_DELAY", h2.getWriteDelay().toMillis());
+            settings.put("RETENTION_TIME", h2.getRetentionTime().toMillis());
+            settings.put("AUTO_COMPACT_FILL_RATE", h2.getAutoCompactFillRate());
+        }
+
+        StringBuilder tunedUrl = new StringBuilder(url);
+        String upperUrl = url.toUpperCase(Locale.ROOT);
+        settings.forEach((name, value) -> {
+            // settings given explicitly in the URL win
+            if (!upperUrl.contains(";" + name + "=")) {
+                tunedUrl.append(';').append(name).append('=').append(value);
+            }
+        });
+        return tunedUrl.toString();
+    }
+}
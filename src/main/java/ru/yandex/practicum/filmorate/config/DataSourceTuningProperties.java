@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and H2 engine settings. Connection URL and credentials stay in {@code spring.datasource.*}.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "filmorate.datasource")
+public class DataSourceTuningProperties {
+
+    @Valid
+    private Pool pool = new Pool();
+
+    @Valid
+    private H2 h2 = new H2();
+
+    @Data
+    public static class Pool {
+        @Min(1)
+        private int maximumPoolSize = 10;
+
+        @Min(0)
+        private int minimumIdle = 10;
+
+        @NotNull
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+
+        @NotNull
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        @NotNull
+        private Duration maxLifetime = Duration.ofMinutes(30);
+    }
+
+    /**
+     * Appended to the JDBC URL as H2 connection settings unless the URL already sets them.
+     */
+    @Data
+    public static class H2 {
+        /**
+         * Page cache per database, in KB (H2 CACHE_SIZE).
+         */
+        @Min(0)
+        private int cacheSizeKb = 65536;
+
+        /**
+         * Parsed statements cached per session (H2 QUERY_CACHE_SIZE).
+         */
+        @Min(0)
+        private int queryCacheSize = 64;
+
+        /**
+         * Delay before committed changes are written to the MVStore file (H2 WRITE_DELAY).
+         */
+        @NotNull
+        private Duration writeDelay = Duration.ofMillis(500);
+
+        /**
+         * How long the MVStore keeps overwritten pages before their space is reused (H2 RETENTION_TIME).
+         */
+        @NotNull
+        private Duration retentionTime = Duration.ofSeconds(45);
+
+        /**
+         * Fill rate below which the MVStore compacts its file in the background (H2 AUTO_COMPACT_FILL_RATE).
+         */
+        @Min(0)
+        private int autoCompactFillRate = 90;
+
+        @NotNull
+        private Duration lockTimeout = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.dataset.DatasetGenerator;
+import ru.yandex.practicum.filmorate.repository.DbFilmRepository;
+import ru.yandex.practicum.filmorate.repository.DbUserRepository;
+
+@Configuration
+@ConditionalOnProperty(name = "filmorate.dataset.enabled", havingValue = "true")
+@EnableConfigurationProperties(DatasetProperties.class)
+public class DatasetConfig {
+
+    @Bean
+    public DatasetGenerator datasetGenerator(JdbcTemplate jdbcTemplate, DatasetProperties properties) {
+        return new DatasetGenerator(jdbcTemplate, properties);
+    }
+
+    @Bean
+    public ApplicationRunner datasetRunner(DatasetGenerator datasetGenerator, PopularFilmsIndex popularFilmsIndex,
+                                           DbUserRepository userRepository, DbFilmRepository filmRepository) {
+        return args -> {
+            datasetGenerator.generate();
+            // the generator inserts past the repositories
+            userRepository.getIdIndex().load();
+            filmRepository.getIdIndex().load();
+            popularFilmsIndex.reload();
+        };
+    }
+}
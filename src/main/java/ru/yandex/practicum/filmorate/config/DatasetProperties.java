@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Synthetic data set, generated on startup only with {@code filmorate.dataset.enabled=true} (the {@code dataset} profile).
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "filmorate.dataset")
+public class DatasetProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * The same seed and sizes always produce the same rows.
+     */
+    private long seed = 42;
+
+    @Min(1)
+    private int users = 10_000;
+
+    @Min(1)
+    private int films = 5_000;
+
+    /**
+     * Average likes per user, the actual count is uniform between zero and twice this value.
+     */
+    @Min(0)
+    private int likesPerUser = 20;
+
+    /**
+     * Power-law exponent of film popularity: 0 is uniform, around 1 a few films collect most likes.
+     */
+    @DecimalMin("0.0")
+    private double likeSkew = 1.1;
+
+    /**
+     * Average friends per user, the actual count is uniform between zero and twice this value.
+     */
+    @Min(0)
+    private int friendsPerUser = 20;
+
+    /**
+     * Users with neighbouring ids form a cluster of this size.
+     */
+    @Min(2)
+    private int friendClusterSize = 200;
+
+    /**
+     * Share of friends picked inside the user's own cluster, the rest are picked from all users.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double clusterAffinity = 0.8;
+
+    @Min(1)
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Min(1)
+    private int batchSize = 5_000;
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.cache.FilmCache;
+
+@Configuration
+@EnableConfigurationProperties(FilmCacheProperties.class)
+public class FilmCacheConfig {
+
+    @Bean
+    public FilmCache filmCache(FilmCacheProperties properties) {
+        return new FilmCache(properties);
+    }
+}
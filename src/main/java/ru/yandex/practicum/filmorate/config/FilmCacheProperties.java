@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Near cache of films by id; {@code maximum-size=0} turns it off.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "filmorate.film-cache")
+public class FilmCacheProperties {
+
+    /**
+     * Films kept at most; beyond it the least valuable ones are evicted by frequency and recency.
+     */
+    @Min(0)
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a cached film is served before it is read again, bounding staleness after external writes.
+     */
+    @NotNull
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
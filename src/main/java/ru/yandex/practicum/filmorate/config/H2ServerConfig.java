@@ -1,16 +1,30 @@
 package ru.yandex.practicum.filmorate.config;
 
 import org.h2.tools.Server;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * H2 TCP server for external SQL clients. Off unless {@code filmorate.h2.tcp-server.enabled=true} (dev profile).
+ */
 @Configuration
+@ConditionalOnProperty(name = "filmorate.h2.tcp-server.enabled", havingValue = "true")
 public class H2ServerConfig {
 
     @Bean(initMethod = "start", destroyMethod = "stop")
-    public Server h2Server() throws SQLException {
-        return Server.createTcpServer("-tcp", "-tcpAllowOthers", "-tcpPort", "9092");
+    public Server h2Server(@Value("${filmorate.h2.tcp-server.port:9092}") int port,
+                           @Value("${filmorate.h2.tcp-server.allow-others:false}") boolean allowOthers)
+            throws SQLException {
+        List<String> args = new ArrayList<>(List.of("-tcp", "-tcpPort", String.valueOf(port)));
+        if (allowOthers) {
+            args.add("-tcpAllowOthers");
+        }
+        return Server.createTcpServer(args.toArray(String[]::new));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * In-memory indexes of stored user and film ids, see {@code IdIndex}.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "filmorate.id-index")
+public class IdIndexProperties {
+
+    /**
+     * How often an id above the highest known one may load the ids stored past the instance; in between such ids
+     * are rejected without a query.
+     */
+    @NotNull
+    private Duration catchUpInterval = Duration.ofSeconds(1);
+}
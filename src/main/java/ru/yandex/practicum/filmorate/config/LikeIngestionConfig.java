@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.ingestion.LikeIngestionPipeline;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+@Configuration
+@ConditionalOnProperty(name = "filmorate.likes.ingestion.enabled", havingValue = "true")
+@EnableConfigurationProperties(LikeIngestionProperties.class)
+public class LikeIngestionConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public LikeIngestionPipeline likeIngestionPipeline(FilmRepository filmRepository,
+                                                       PopularFilmsIndex popularFilmsIndex,
+                                                       LikeIngestionProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new LikeIngestionPipeline(filmRepository, popularFilmsIndex, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Write-behind like ingestion, off unless {@code filmorate.likes.ingestion.enabled=true}.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "filmorate.likes.ingestion")
+public class LikeIngestionProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Largest number of like changes written in one group commit.
+     */
+    @Min(1)
+    private int maxBatch = 500;
+
+    /**
+     * Longest time a queued like change waits before it is flushed.
+     */
+    @NotNull
+    private Duration maxLatency = Duration.ofMillis(50);
+
+    /**
+     * Distinct (film, user) pairs that may wait for a flush.
+     */
+    @Min(1)
+    private int queueCapacity = 50_000;
+
+    /**
+     * How long a request waits for queue space before it is rejected with 503.
+     */
+    @NotNull
+    private Duration offerTimeout = Duration.ofMillis(100);
+}
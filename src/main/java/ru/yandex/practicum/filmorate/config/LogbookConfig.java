@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.zalando.logbook.Strategy;
+
+@Configuration
+@Profile("prod")
+public class LogbookConfig {
+
+    @Bean
+    public Strategy logbookStrategy(@Value("${filmorate.logbook.sample-rate:0.01}") double sampleRate,
+                                    @Value("${filmorate.logbook.always-log-status:400}") int alwaysLogStatus) {
+        return new SampledLogbookStrategy(sampleRate, alwaysLogStatus);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes request and response together, once per exchange: always when the response status is at least
+ * {@code alwaysLogStatus}, otherwise only for a random {@code sampleRate} share of exchanges.
+ * <p>
+ * The sample is drawn when the request arrives, so bodies are buffered only for sampled exchanges; an error
+ * response outside the sample is written without bodies.
+ */
+public class SampledLogbookStrategy implements Strategy {
+
+    private final double sampleRate;
+    private final int alwaysLogStatus;
+    // the filter processes the request and the response on one thread before the handler runs
+    private final ThreadLocal<Boolean> sampledRequest = new ThreadLocal<>();
+    // decisions by request until the exchange is written; weak keys drop abandoned exchanges
+    private final Map<HttpRequest, Boolean> decisions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public SampledLogbookStrategy(double sampleRate, int alwaysLogStatus) {
+        this.sampleRate = sampleRate;
+        this.alwaysLogStatus = alwaysLogStatus;
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        boolean sampled = sample();
+        sampledRequest.set(sampled);
+        return sampled ? request.withBody() : request.withoutBody();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+        // the request is written together with its response
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        Boolean sampled = sampledRequest.get();
+        sampledRequest.remove();
+        if (sampled == null) {
+            return response.withBody();
+        }
+        decisions.put(request, sampled);
+        return sampled ? response.withBody() : response.withoutBody();
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response, Sink sink)
+            throws IOException {
+        if (response.getStatus() >= alwaysLogStatus) {
+            decisions.remove(request);
+            sink.writeBoth(correlation, request, response);
+            return;
+        }
+        // exchanges whose request phase was not seen here are sampled now
+        Boolean sampled = decisions.remove(request);
+        if (sampled == null ? sample() : sampled) {
+            sink.writeBoth(correlation, request, response);
+        }
+    }
+
+    private boolean sample() {
+        return ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Entity versions as strong ETags: version 3 is {@code "3"}. Content without a version is tagged by its hash.
+ */
+public final class ETags {
+
+    private static final String ANY = "*";
+    private static final Pattern VERSION_TAG = Pattern.compile("\"\\d{1,9}\"");
+
+    private ETags() {
+    }
+
+    public static String of(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String ofContent(int contentHash) {
+        return "\"h" + Integer.toHexString(contentHash) + "\"";
+    }
+
+    /**
+     * @return the version required by If-Match, or {@code null} when the header is absent or {@code *}
+     * @throws VersionConflictException if the header is not a single strong version tag, as it can match no version
+     */
+    public static Integer parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (VERSION_TAG.matcher(tag).matches()) {
+            return Integer.valueOf(tag.substring(1, tag.length() - 1));
+        }
+        throw new VersionConflictException("If-Match %s does not match the current version".formatted(ifMatch));
+    }
+}
@@ -3,22 +3,32 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.dto.batch.BatchResult;
+import ru.yandex.practicum.filmorate.dto.page.CursorPage;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmLikeService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/films")
@@ -27,15 +37,47 @@ public class FilmController {
 
     private final FilmService filmService;
     private final FilmLikeService likeService;
+    private final ResponseCache responseCache;
 
+    /**
+     * With {@code ids=1,2,3} returns those films in that order instead of a page.
+     */
     @GetMapping
-    public Collection<Film> getList() {
-        return filmService.getList();
+    public Collection<Film> getList(@RequestParam(name = "after_id", required = false) Integer afterId,
+                                    @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+                                    @RequestParam(required = false) List<Integer> ids,
+                                    HttpServletResponse response) {
+        if (ids != null) {
+            return filmService.getByIds(ids);
+        }
+        CursorPage<Film> page = filmService.getList(afterId, limit);
+        if (page.hasNext()) {
+            response.addHeader(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return page.items();
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(filmService::export);
     }
 
+    /**
+     * Reads only the film version first, so If-None-Match with the current version is answered with 304
+     * without loading the film.
+     */
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable Integer id) {
-        return filmService.getFilmById(id);
+    public ResponseEntity<Film> getFilmById(@PathVariable Integer id, WebRequest request) {
+        int version = filmService.getVersion(id);
+        if (request.checkNotModified(ETags.of(version))) {
+            return null;
+        }
+        Film film = filmService.getFilmById(id, version);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(film.getVersion()))
+                .body(film);
     }
 
     @PostMapping
@@ -43,12 +85,30 @@ public class FilmController {
         if (film.getId() != null) {
             response.addHeader("Warning", "Server ignored client-provided ID");
         }
-        return filmService.create(film);
+        Film created = filmService.create(film);
+        response.setHeader(HttpHeaders.ETAG, ETags.of(created.getVersion()));
+        return created;
+    }
+
+    /**
+     * Creates every valid film of the payload; client-provided IDs are ignored.
+     */
+    @PostMapping("/batch")
+    public BatchResult createBatch(@RequestBody List<Film> films) {
+        return filmService.createBatch(films);
     }
 
+    /**
+     * Updates the film; with an If-Match header only if the film is still at that version.
+     */
     @PutMapping
-    public Film update(@RequestBody @Valid Film film) {
-        return filmService.update(film);
+    public ResponseEntity<Film> update(@RequestBody @Valid Film film,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        film.setVersion(ETags.parseIfMatch(ifMatch));
+        Film updated = filmService.update(film);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updated.getVersion()))
+                .body(updated);
     }
 
     @PutMapping("/{filmId}/like/{userId}")
@@ -62,8 +122,20 @@ public class FilmController {
         likeService.removeLike(filmId, userId);
     }
 
+    /**
+     * Served as pre-rendered JSON, keyed by the ids of the top films: rendered again only when their order
+     * or one of the films changes, not on every like.
+     * At most {@value FilmLikeService#MAX_POPULAR_COUNT} films are returned.
+     */
     @GetMapping("/popular")
-    public Collection<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return likeService.getPopularFilms(count);
+    public ResponseEntity<byte[]> getPopularFilms(
+            @RequestParam(name = "count", defaultValue = "10") int requestedCount) {
+        int count = Math.clamp(requestedCount, 0, FilmLikeService.MAX_POPULAR_COUNT);
+        List<Integer> filmIds = likeService.getPopularFilmIds(count);
+        byte[] body = responseCache.get(ResponseCache.POPULAR_FILMS, "ids=" + filmIds,
+                () -> likeService.getPopularFilms(filmIds));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 }
\ No newline at end of file
@@ -1,29 +1,50 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
-import java.util.Collection;
-
 @RestController
 @RequestMapping("/genres")
 @RequiredArgsConstructor
 public class GenreController {
 
     private final GenreService genreService;
+    private final ResponseCache responseCache;
 
+    /**
+     * Served as pre-rendered JSON, keyed by the dictionary content.
+     */
     @GetMapping
-    public Collection<Genre> getAllGenres() {
-        return genreService.getAllGenres();
+    public ResponseEntity<byte[]> getAllGenres(WebRequest request) {
+        int contentHash = genreService.getContentHash();
+        String eTag = ETags.ofContent(contentHash);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(responseCache.get(ResponseCache.GENRES, "hash=" + contentHash, genreService::getAllGenres));
     }
 
     @GetMapping("/{id}")
-    public Genre getGenre(@PathVariable Integer id) {
-        return genreService.getGenreById(id);
+    public ResponseEntity<Genre> getGenre(@PathVariable Integer id, WebRequest request) {
+        Genre genre = genreService.getGenreById(id);
+        String eTag = ETags.ofContent(genreService.getContentHash());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(genre);
     }
 }
@@ -1,33 +1,49 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
-import java.util.Collection;
-
 @RestController
 @RequestMapping("/mpa")
 @RequiredArgsConstructor
 public class MpaController {
     private final MpaService mpaService;
+    private final ResponseCache responseCache;
 
+    /**
+     * Served as pre-rendered JSON, keyed by the dictionary content.
+     */
     @GetMapping
-    public Collection<Mpa> getAllMpa() {
-        return mpaService.getAllMpa();
+    public ResponseEntity<byte[]> getAllMpa(WebRequest request) {
+        int contentHash = mpaService.getContentHash();
+        String eTag = ETags.ofContent(contentHash);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(responseCache.get(ResponseCache.MPA, "hash=" + contentHash, mpaService::getAllMpa));
     }
 
     @GetMapping("/{id}")
-    public Mpa getMpa(@PathVariable Integer id) {
-        return mpaService.getMpaById(id);
+    public ResponseEntity<Mpa> getMpa(@PathVariable Integer id, WebRequest request) {
+        Mpa mpa = mpaService.getMpaById(id);
+        String eTag = ETags.ofContent(mpaService.getContentHash());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(mpa);
     }
-
-
-
-
-
 }
@@ -4,21 +4,30 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.batch.BatchResult;
+import ru.yandex.practicum.filmorate.dto.page.CursorPage;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.FriendsService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -32,9 +41,29 @@ public class UserController {
     public record FriendshipResponse(Integer user1Id, Integer user2Id, String status) {
     }
 
+    /**
+     * With {@code ids=1,2,3} returns those users in that order instead of a page.
+     */
     @GetMapping
-    public Collection<User> getList() {
-        return userService.getList();
+    public Collection<User> getList(@RequestParam(name = "after_id", required = false) Integer afterId,
+                                    @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+                                    @RequestParam(required = false) List<Integer> ids,
+                                    HttpServletResponse response) {
+        if (ids != null) {
+            return userService.getByIds(ids);
+        }
+        CursorPage<User> page = userService.getList(afterId, limit);
+        if (page.hasNext()) {
+            response.addHeader(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return page.items();
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService::export);
     }
 
     @PostMapping
@@ -42,12 +71,30 @@ public class UserController {
         if (user.getId() != null) {
             response.addHeader("Warning", "Server ignored client-provided ID");
         }
-        return userService.create(user);
+        User created = userService.create(user);
+        response.setHeader(HttpHeaders.ETAG, ETags.of(created.getVersion()));
+        return created;
+    }
+
+    /**
+     * Creates every valid user of the payload; client-provided IDs are ignored.
+     */
+    @PostMapping("/batch")
+    public BatchResult createBatch(@RequestBody List<User> users) {
+        return userService.createBatch(users);
     }
 
+    /**
+     * Updates the user; with an If-Match header only if the user is still at that version.
+     */
     @PutMapping
-    public User update(@RequestBody @Valid User user) {
-        return userService.update(user);
+    public ResponseEntity<User> update(@RequestBody @Valid User user,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        user.setVersion(ETags.parseIfMatch(ifMatch));
+        User updated = userService.update(user);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updated.getVersion()))
+                .body(updated);
     }
 
     @PutMapping("/{userId}/friends/{friendId}")
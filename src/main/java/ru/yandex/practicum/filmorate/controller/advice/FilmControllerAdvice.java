@@ -14,8 +14,10 @@ import ru.yandex.practicum.filmorate.exception.FilmCreateFailed;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.FilmValidationException;
 import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
+import ru.yandex.practicum.filmorate.exception.LikeIngestionOverloadedException;
 import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
 
 import java.util.Map;
 import java.util.Optional;
@@ -68,6 +70,22 @@ public class FilmControllerAdvice {
         return new ErrorResponse(ex.getMessage(), "GENRE_NOT_FOUND");
     }
 
+    @ExceptionHandler(LikeIngestionOverloadedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleLikeIngestionOverloaded(LikeIngestionOverloadedException ex, WebRequest request) {
+        log.warn("Like rejected in {}: {}", request.getDescription(false), ex.getMessage());
+
+        return new ErrorResponse(ex.getMessage(), "LIKES_OVERLOADED");
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handleVersionConflict(VersionConflictException ex, WebRequest request) {
+        log.warn("Film version conflict in {}: {}", request.getDescription(false), ex.getMessage());
+
+        return new ErrorResponse(ex.getMessage(), "VERSION_CONFLICT");
+    }
+
     @ExceptionHandler({FilmValidationException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleInvalidFilm(RuntimeException ex, WebRequest request) {
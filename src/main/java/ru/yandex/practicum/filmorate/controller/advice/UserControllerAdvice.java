@@ -13,6 +13,7 @@ import ru.yandex.practicum.filmorate.dto.error.ErrorResponse;
 import ru.yandex.practicum.filmorate.exception.UserCreateFailed;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exception.UserValidationException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
 
 import java.util.Map;
 import java.util.Optional;
@@ -48,6 +49,14 @@ public class UserControllerAdvice {
         return new ErrorResponse(ex.getMessage(), "USER_INVALID_DATA");
     }
 
+    @ExceptionHandler(VersionConflictException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handleVersionConflict(VersionConflictException ex, WebRequest request) {
+        log.warn("User version conflict in {}: {}", request.getDescription(false), ex.getMessage());
+
+        return new ErrorResponse(ex.getMessage(), "VERSION_CONFLICT");
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleStateException(IllegalStateException ex, WebRequest request) {
@@ -0,0 +1,237 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.config.DatasetProperties;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fills user, film, film_genre, film_like and friendship with synthetic rows at the scale of {@link DatasetProperties}.
+ * <p>
+ * Every row is derived from the seed and the user or film index only, so the same properties give the same data
+ * whatever the number of threads. Film popularity follows a power law over film index (low indexes are the hits),
+ * friendships are mostly picked inside clusters of neighbouring users. Users and films are inserted in one thread
+ * so they get consecutive ids, likes and friendships by parallel producers, each writing its own JDBC batches.
+ * Rows are appended to what is already stored; nothing else should write to these tables meanwhile.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    private static final String SQL_INSERT_USER = "INSERT INTO \"user\" (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+    private static final String SQL_INSERT_FILM = "INSERT INTO \"film\" (name, description, release_date, duration, mpa_id) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_INSERT_FILM_GENRE = "INSERT INTO \"film_genre\" (film_id, genre_id) VALUES (?, ?)";
+    private static final String SQL_INSERT_FILM_LIKE = "INSERT INTO \"film_like\" (film_id, user_id) VALUES (?, ?)";
+    private static final String SQL_INSERT_FRIENDSHIP = "INSERT INTO \"friendship\" (user_id, friend_id, accepted) VALUES (?, ?, true)";
+    private static final String SQL_UPDATE_LIKES_COUNT = "UPDATE \"film\" f SET likes_count = " +
+            "(SELECT COUNT(*) FROM \"film_like\" fl WHERE fl.film_id = f.id) WHERE f.id >= ?";
+    private static final String SQL_SELECT_MAX_ID = "SELECT COALESCE(MAX(id), 0) FROM \"%s\"";
+    private static final String SQL_SELECT_IDS_AFTER = "SELECT id FROM \"%s\" WHERE id > ? ORDER BY id";
+
+    private static final int USERS_PER_TASK = 1_000;
+    private static final LocalDate EARLIEST_BIRTHDAY = LocalDate.of(1950, 1, 1);
+    private static final LocalDate EARLIEST_RELEASE = LocalDate.of(1930, 1, 1);
+    private static final long SALT_USER = 1;
+    private static final long SALT_FILM = 2;
+    private static final long SALT_GENRES = 3;
+    private static final long SALT_LIKES = 4;
+    private static final long SALT_FRIENDS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatasetProperties properties;
+
+    public GeneratedDataset generate() {
+        long started = System.nanoTime();
+        List<Integer> mpaIds = jdbcTemplate.queryForList("SELECT id FROM \"mpa\" ORDER BY id", Integer.class);
+        List<Integer> genreIds = jdbcTemplate.queryForList("SELECT id FROM \"genre\" ORDER BY id", Integer.class);
+
+        int[] userIds = insertUsers();
+        LongAdder filmGenres = new LongAdder();
+        int[] filmIds = insertFilms(mpaIds, genreIds, filmGenres);
+
+        LongAdder likes = new LongAdder();
+        LongAdder friendships = new LongAdder();
+        produceInParallel(userIds, filmIds, likes, friendships);
+        jdbcTemplate.update(SQL_UPDATE_LIKES_COUNT, filmIds[0]);
+
+        GeneratedDataset dataset = new GeneratedDataset(userIds[0], userIds[userIds.length - 1],
+                filmIds[0], filmIds[filmIds.length - 1], filmGenres.sum(), likes.sum(), friendships.sum(),
+                Duration.ofNanos(System.nanoTime() - started));
+        log.info("Generated data set: {}", dataset);
+        return dataset;
+    }
+
+    private int[] insertUsers() {
+        int maxId = maxId("user");
+        List<Object[]> rows = new ArrayList<>(properties.getBatchSize());
+
+        for (int i = 0; i < properties.getUsers(); i++) {
+            SplittableRandom random = random(SALT_USER, i);
+            rows.add(new Object[]{"user" + i + "@example.com", "user" + i, "User " + i,
+                    Date.valueOf(EARLIEST_BIRTHDAY.plusDays(random.nextInt(50 * 365)))});
+            flushIfFull(SQL_INSERT_USER, rows);
+        }
+        flush(SQL_INSERT_USER, rows);
+
+        return idsAfter("user", maxId);
+    }
+
+    private int[] insertFilms(List<Integer> mpaIds, List<Integer> genreIds, LongAdder filmGenres) {
+        int maxId = maxId("film");
+        List<Object[]> rows = new ArrayList<>(properties.getBatchSize());
+
+        for (int i = 0; i < properties.getFilms(); i++) {
+            SplittableRandom random = random(SALT_FILM, i);
+            rows.add(new Object[]{"Film " + i, "Synthetic film " + i,
+                    Date.valueOf(EARLIEST_RELEASE.plusDays(random.nextInt(90 * 365))),
+                    60 + random.nextInt(120), mpaIds.get(random.nextInt(mpaIds.size()))});
+            flushIfFull(SQL_INSERT_FILM, rows);
+        }
+        flush(SQL_INSERT_FILM, rows);
+
+        int[] filmIds = idsAfter("film", maxId);
+        for (int i = 0; i < filmIds.length; i++) {
+            SplittableRandom random = random(SALT_GENRES, i);
+            int first = random.nextInt(genreIds.size());
+            int count = 1 + random.nextInt(Math.min(3, genreIds.size()));
+            for (int g = 0; g < count; g++) {
+                rows.add(new Object[]{filmIds[i], genreIds.get((first + g) % genreIds.size())});
+            }
+            filmGenres.add(count);
+            flushIfFull(SQL_INSERT_FILM_GENRE, rows);
+        }
+        flush(SQL_INSERT_FILM_GENRE, rows);
+
+        return filmIds;
+    }
+
+    private void produceInParallel(int[] userIds, int[] filmIds, LongAdder likes, LongAdder friendships) {
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getThreads());
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int from = 0; from < userIds.length; from += USERS_PER_TASK) {
+                int to = Math.min(from + USERS_PER_TASK, userIds.length);
+                int first = from;
+                tasks.add(executor.submit(() -> produce(first, to, userIds, filmIds, likes, friendships)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Data set generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Data set generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void produce(int from, int to, int[] userIds, int[] filmIds, LongAdder likes, LongAdder friendships) {
+        List<Object[]> likeRows = new ArrayList<>(properties.getBatchSize());
+        List<Object[]> friendRows = new ArrayList<>(properties.getBatchSize());
+
+        for (int i = from; i < to; i++) {
+            for (int filmIndex : pickLikedFilms(i, filmIds.length)) {
+                likeRows.add(new Object[]{filmIds[filmIndex], userIds[i]});
+            }
+            likes.add(flushIfFull(SQL_INSERT_FILM_LIKE, likeRows));
+
+            for (int friendIndex : pickFriends(i, userIds.length)) {
+                friendRows.add(new Object[]{userIds[i], userIds[friendIndex]});
+            }
+            friendships.add(flushIfFull(SQL_INSERT_FRIENDSHIP, friendRows));
+        }
+        likes.add(flush(SQL_INSERT_FILM_LIKE, likeRows));
+        friendships.add(flush(SQL_INSERT_FRIENDSHIP, friendRows));
+    }
+
+    private Set<Integer> pickLikedFilms(int userIndex, int films) {
+        SplittableRandom random = random(SALT_LIKES, userIndex);
+        int count = Math.min(random.nextInt(2 * properties.getLikesPerUser() + 1), films);
+        Set<Integer> picked = new HashSet<>();
+
+        // popular films are drawn again and again under a strong skew, so give up after a bounded number of draws
+        for (int attempt = 0; picked.size() < count && attempt < count * 10; attempt++) {
+            picked.add(powerLawRank(random, films, properties.getLikeSkew()));
+        }
+        return picked;
+    }
+
+    private Set<Integer> pickFriends(int userIndex, int users) {
+        SplittableRandom random = random(SALT_FRIENDS, userIndex);
+        int count = Math.min(random.nextInt(2 * properties.getFriendsPerUser() + 1), users - 1);
+        int clusterStart = userIndex / properties.getFriendClusterSize() * properties.getFriendClusterSize();
+        int clusterSize = Math.min(properties.getFriendClusterSize(), users - clusterStart);
+        Set<Integer> picked = new HashSet<>();
+
+        for (int attempt = 0; picked.size() < count && attempt < count * 10; attempt++) {
+            int friendIndex = random.nextDouble() < properties.getClusterAffinity()
+                    ? clusterStart + random.nextInt(clusterSize)
+                    : random.nextInt(users);
+            if (friendIndex != userIndex) {
+                picked.add(friendIndex);
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Index in [0, n) drawn from a continuous power law with the given exponent; 0 is the most likely.
+     */
+    static int powerLawRank(SplittableRandom random, int n, double skew) {
+        double u = random.nextDouble();
+        double x;
+        if (Math.abs(skew - 1.0) < 1e-9) {
+            x = Math.pow(n + 1, u);
+        } else {
+            double a = 1 - skew;
+            x = Math.pow((Math.pow(n + 1, a) - 1) * u + 1, 1 / a);
+        }
+        return Math.min((int) x - 1, n - 1);
+    }
+
+    private SplittableRandom random(long salt, long index) {
+        return new SplittableRandom(properties.getSeed() * 1_000_003L + salt * 0x9E3779B97F4A7C15L + index);
+    }
+
+    private int flushIfFull(String sql, List<Object[]> rows) {
+        return rows.size() >= properties.getBatchSize() ? flush(sql, rows) : 0;
+    }
+
+    private int flush(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+        int flushed = rows.size();
+        rows.clear();
+        return flushed;
+    }
+
+    private int maxId(String table) {
+        Integer maxId = jdbcTemplate.queryForObject(SQL_SELECT_MAX_ID.formatted(table), Integer.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    private int[] idsAfter(String table, int maxId) {
+        return jdbcTemplate.queryForList(SQL_SELECT_IDS_AFTER.formatted(table), Integer.class, maxId).stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import java.time.Duration;
+
+/**
+ * Id ranges and row counts of one {@link DatasetGenerator#generate()} run.
+ */
+public record GeneratedDataset(int firstUserId, int lastUserId, int firstFilmId, int lastFilmId,
+                               long filmGenres, long likes, long friendships, Duration elapsed) {
+}
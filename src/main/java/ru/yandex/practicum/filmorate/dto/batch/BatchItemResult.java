@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.dto.batch;
+
+import java.util.Map;
+
+/**
+ * Outcome of one item of a batch request: the generated id, or the errors that kept it from being created.
+ * {@code index} is the position of the item in the request.
+ */
+public record BatchItemResult(int index, Integer id, Map<String, String> errors) {
+
+    public static BatchItemResult created(int index, Integer id) {
+        return new BatchItemResult(index, id, null);
+    }
+
+    public static BatchItemResult failed(int index, Map<String, String> errors) {
+        return new BatchItemResult(index, null, errors);
+    }
+
+    public boolean isCreated() {
+        return errors == null;
+    }
+}
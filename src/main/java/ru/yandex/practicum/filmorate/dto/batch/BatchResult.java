@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.dto.batch;
+
+import java.util.List;
+
+/**
+ * Per-item results of a batch request, in request order.
+ */
+public record BatchResult(int created, int failed, List<BatchItemResult> items) {
+
+    public static BatchResult of(List<BatchItemResult> items) {
+        int created = (int) items.stream()
+                .filter(BatchItemResult::isCreated)
+                .count();
+        return new BatchResult(created, items.size() - created, items);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.dto.page;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (id-seek) listing. {@code nextCursor} is the last id of the page
+ * and is passed back as {@code after_id} to read the next page; null on the last page.
+ */
+public record CursorPage<T>(List<T> items, Integer nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}: the extra row only signals that more data exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Integer> idExtractor) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, idExtractor.apply(items.getLast()));
+    }
+
+    public static int normalizeLimit(int limit) {
+        return Math.clamp(limit, 1, MAX_LIMIT);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class LikeIngestionOverloadedException extends RuntimeException {
+    public LikeIngestionOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.importer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.config.CatalogImportProperties;
+
+import java.io.IOException;
+
+/**
+ * Imports {@code filmorate.catalog-import.file} once the application has started.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private final CatalogImporter importer;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final CatalogImportProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        log.info("Importing catalog from {}, skipping {} rows", properties.getFile(), properties.getSkipRows());
+
+        ImportReport report = importer.importFile(properties.getFile(), properties.getSkipRows());
+        popularFilmsIndex.reload();
+
+        log.info("Catalog import finished: {} rows read, {} imported, {} rejected, last row {}",
+                report.rowsRead(), report.imported(), report.rejected(), report.lastRow());
+    }
+}
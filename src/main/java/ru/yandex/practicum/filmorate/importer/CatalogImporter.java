@@ -0,0 +1,213 @@
+package ru.yandex.practicum.filmorate.importer;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.yandex.practicum.filmorate.config.CatalogImportProperties;
+import ru.yandex.practicum.filmorate.exception.FilmValidationException;
+import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
+import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a film catalog CSV into the database with memory bounded by one block of rows.
+ * <p>
+ * Columns: {@code name,description,release_date,duration,mpa,genres} after a header line; MPA and genres are
+ * given by name, genres separated by {@code |}. A block of {@code batch-size} rows is parsed and validated in
+ * parallel with the same bean validation as the REST API, then its valid films are written by
+ * {@link FilmRepository#createAll(List)} in one transaction. Invalid rows are logged and skipped.
+ */
+@Slf4j
+public class CatalogImporter {
+
+    static final int COLUMNS = 6;
+    private static final String GENRE_SEPARATOR = "\\|";
+
+    private final FilmRepository filmRepository;
+    private final Validator validator;
+    private final Map<String, Mpa> mpaByName;
+    private final Map<String, Genre> genreByName;
+    private final CatalogImportProperties properties;
+
+    public CatalogImporter(FilmRepository filmRepository, Validator validator, List<Mpa> mpas, List<Genre> genres,
+                           CatalogImportProperties properties) {
+        this.filmRepository = filmRepository;
+        this.validator = validator;
+        this.mpaByName = mpas.stream().collect(Collectors.toMap(mpa -> key(mpa.getName()), Function.identity()));
+        this.genreByName = genres.stream().collect(Collectors.toMap(genre -> key(genre.getName()), Function.identity()));
+        this.properties = properties;
+    }
+
+    private record Row(long number, String line) {
+    }
+
+    private record ParsedRow(long number, Film film, String error) {
+        boolean isValid() {
+            return error == null;
+        }
+    }
+
+    /**
+     * @param skipRows data rows to skip, the {@link ImportReport#lastRow()} of an interrupted run
+     */
+    public ImportReport importFile(Path file, long skipRows) throws IOException {
+        Progress progress = new Progress(skipRows);
+        List<Row> block = new ArrayList<>(properties.getBatchSize());
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            log.debug("Catalog header: {}", header);
+
+            long rowNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                rowNumber++;
+                if (rowNumber <= skipRows || line.isBlank()) {
+                    continue;
+                }
+
+                block.add(new Row(rowNumber, line));
+                if (block.size() == properties.getBatchSize()) {
+                    importBlock(block, progress);
+                }
+            }
+        }
+        importBlock(block, progress);
+
+        return progress.report();
+    }
+
+    private void importBlock(List<Row> block, Progress progress) {
+        if (block.isEmpty()) {
+            return;
+        }
+
+        List<ParsedRow> parsedRows = block.parallelStream()
+                .map(this::parse)
+                .toList();
+
+        List<Film> films = new ArrayList<>(parsedRows.size());
+        for (ParsedRow row : parsedRows) {
+            if (row.isValid()) {
+                films.add(row.film());
+            } else {
+                log.warn("Catalog row {} rejected: {}", row.number(), row.error());
+            }
+        }
+
+        try {
+            if (!films.isEmpty()) {
+                filmRepository.createAll(films);
+            }
+        } catch (DataAccessException e) {
+            log.error("Catalog import stopped, rows up to {} are committed. Restart with skip-rows={}",
+                    progress.lastRow, progress.lastRow);
+            throw e;
+        }
+
+        progress.add(block.size(), films.size(), block.getLast().number());
+        block.clear();
+    }
+
+    private ParsedRow parse(Row row) {
+        try {
+            Film film = toFilm(CsvLines.split(row.line()));
+
+            Set<ConstraintViolation<Film>> violations = validator.validate(film);
+            if (!violations.isEmpty()) {
+                return new ParsedRow(row.number(), null, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .collect(Collectors.joining(", ")));
+            }
+            return new ParsedRow(row.number(), film, null);
+        } catch (RuntimeException e) {
+            return new ParsedRow(row.number(), null, e.getMessage());
+        }
+    }
+
+    private Film toFilm(List<String> fields) {
+        if (fields.size() != COLUMNS) {
+            throw new FilmValidationException("Expected %d columns, got %d".formatted(COLUMNS, fields.size()));
+        }
+
+        return Film.builder()
+                .name(fields.get(0))
+                .description(fields.get(1))
+                .releaseDate(LocalDate.parse(fields.get(2).trim()))
+                .duration(Duration.ofMinutes(Long.parseLong(fields.get(3).trim())))
+                .mpa(resolveMpa(fields.get(4)))
+                .genres(resolveGenres(fields.get(5)))
+                .build();
+    }
+
+    private Mpa resolveMpa(String name) {
+        return Optional.ofNullable(mpaByName.get(key(name)))
+                .orElseThrow(() -> new MpaNotFoundException("MPA rating not found: " + name));
+    }
+
+    private Set<Genre> resolveGenres(String names) {
+        Set<Genre> genres = new LinkedHashSet<>();
+        for (String name : names.split(GENRE_SEPARATOR)) {
+            if (name.isBlank()) {
+                continue;
+            }
+            genres.add(Optional.ofNullable(genreByName.get(key(name)))
+                    .orElseThrow(() -> new GenreNotFoundException("Genre not found: " + name)));
+        }
+        return genres;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Progress {
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private long lastRow;
+        private long nextReport;
+
+        private Progress(long skipRows) {
+            this.lastRow = skipRows;
+            this.nextReport = properties.getProgressInterval();
+        }
+
+        private void add(int rows, int importedRows, long blockLastRow) {
+            rowsRead += rows;
+            imported += importedRows;
+            rejected += rows - importedRows;
+            lastRow = blockLastRow;
+
+            if (rowsRead >= nextReport) {
+                log.info("Catalog import: {} rows read, {} imported, {} rejected, committed up to row {}",
+                        rowsRead, imported, rejected, lastRow);
+                nextReport = (rowsRead / properties.getProgressInterval() + 1) * properties.getProgressInterval();
+            }
+        }
+
+        private ImportReport report() {
+            return new ImportReport(rowsRead, imported, rejected, lastRow);
+        }
+    }
+}
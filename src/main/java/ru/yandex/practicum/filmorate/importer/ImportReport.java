@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.importer;
+
+/**
+ * Totals of one import run. {@code lastRow} is the last data row committed, the {@code skip-rows} value to restart from.
+ */
+public record ImportReport(long rowsRead, long imported, long rejected, long lastRow) {
+}
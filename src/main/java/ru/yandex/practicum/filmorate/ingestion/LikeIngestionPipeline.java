@@ -0,0 +1,192 @@
+package ru.yandex.practicum.filmorate.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.config.LikeIngestionProperties;
+import ru.yandex.practicum.filmorate.exception.LikeIngestionOverloadedException;
+import ru.yandex.practicum.filmorate.model.LikeChange;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind queue for likes and unlikes. Requests only record the latest change per (film, user);
+ * a single flusher thread writes pending changes with {@link FilmRepository#applyLikeChanges} in batches
+ * of at most {@code maxBatch}, at least every {@code maxLatency}. When {@code queueCapacity} pairs are
+ * pending, requests wait up to {@code offerTimeout} for space and are then rejected. A failed batch is
+ * retried change by change; changes that still fail are dropped and counted.
+ */
+@Slf4j
+public class LikeIngestionPipeline {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final FilmRepository filmRepository;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final int maxBatch;
+    private final long maxLatencyNanos;
+    private final long offerTimeoutNanos;
+    private final int queueCapacity;
+    private final Map<LikeKey, Boolean> pending = new ConcurrentHashMap<>();
+    private final Semaphore freeSlots;
+    private final Timer flushTimer;
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter dropped;
+    private volatile boolean running;
+    private Thread flusher;
+
+    private record LikeKey(Integer filmId, Integer userId) {
+    }
+
+    public LikeIngestionPipeline(FilmRepository filmRepository, PopularFilmsIndex popularFilmsIndex,
+                                 LikeIngestionProperties properties, MeterRegistry meterRegistry) {
+        this.filmRepository = filmRepository;
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.maxBatch = properties.getMaxBatch();
+        this.maxLatencyNanos = properties.getMaxLatency().toNanos();
+        this.offerTimeoutNanos = properties.getOfferTimeout().toNanos();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.freeSlots = new Semaphore(queueCapacity);
+
+        Gauge.builder("filmorate.likes.ingestion.queue.depth", this, LikeIngestionPipeline::getQueueDepth)
+                .register(meterRegistry);
+        flushTimer = Timer.builder("filmorate.likes.ingestion.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        coalesced = changesCounter(meterRegistry, "coalesced");
+        rejected = changesCounter(meterRegistry, "rejected");
+        written = changesCounter(meterRegistry, "written");
+        failed = changesCounter(meterRegistry, "failed");
+        dropped = changesCounter(meterRegistry, "dropped");
+    }
+
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("like-ingestion-flusher")
+                .daemon()
+                .start(this::runFlusher);
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(SHUTDOWN_TIMEOUT_MS);
+    }
+
+    public void submit(Integer filmId, Integer userId, boolean liked) {
+        LikeKey key = new LikeKey(filmId, userId);
+        if (pending.replace(key, liked) != null) {
+            coalesced.increment();
+            return;
+        }
+
+        acquireSlot();
+        if (pending.put(key, liked) != null) {
+            // another request queued the same pair meanwhile
+            freeSlots.release();
+            coalesced.increment();
+        }
+        if (getQueueDepth() >= maxBatch) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queueCapacity - freeSlots.availablePermits();
+    }
+
+    /**
+     * Writes everything pending at call time. Called by the flusher thread only.
+     */
+    void flush() {
+        List<LikeChange> batch = new ArrayList<>(maxBatch);
+        for (LikeKey key : pending.keySet()) {
+            Boolean liked = pending.remove(key);
+            if (liked == null) {
+                continue;
+            }
+            freeSlots.release();
+            batch.add(new LikeChange(key.filmId(), key.userId(), liked));
+
+            if (batch.size() >= maxBatch) {
+                write(batch);
+                batch = new ArrayList<>(maxBatch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            if (getQueueDepth() < maxBatch) {
+                LockSupport.parkNanos(this, maxLatencyNanos);
+            }
+            flush();
+        }
+        // drain what was queued before shutdown
+        flush();
+    }
+
+    private void write(List<LikeChange> batch) {
+        long started = System.nanoTime();
+        try {
+            apply(batch);
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.warn("Failed to write {} like changes, retrying one by one", batch.size(), e);
+            batch.forEach(this::writeAlone);
+        } finally {
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // the batch was rolled back as a whole, so one bad change must not take the others with it
+    private void writeAlone(LikeChange change) {
+        try {
+            apply(List.of(change));
+        } catch (RuntimeException e) {
+            dropped.increment();
+            log.error("Dropped like change {}", change, e);
+        }
+    }
+
+    private void apply(List<LikeChange> changes) {
+        Map<Integer, Integer> deltas = filmRepository.applyLikeChanges(changes);
+        deltas.forEach(popularFilmsIndex::adjust);
+        written.increment(changes.size());
+    }
+
+    private void acquireSlot() {
+        try {
+            if (freeSlots.tryAcquire(offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new LikeIngestionOverloadedException("Too many pending likes, retry later");
+    }
+
+    private static Counter changesCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("filmorate.likes.ingestion.changes")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
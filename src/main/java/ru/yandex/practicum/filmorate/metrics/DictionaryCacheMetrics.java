@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
+import ru.yandex.practicum.filmorate.repository.DbGenreRepository;
+import ru.yandex.practicum.filmorate.repository.DbMpaRepository;
+
+import java.util.List;
+
+/**
+ * Hit, miss and size meters for the genre and MPA dictionary caches.
+ */
+@Component
+@RequiredArgsConstructor
+public class DictionaryCacheMetrics implements MeterBinder {
+
+    private static final String REQUESTS = "filmorate.dictionary.cache.requests";
+    private static final String SIZE = "filmorate.dictionary.cache.size";
+
+    private final DbGenreRepository genreRepository;
+    private final DbMpaRepository mpaRepository;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (DictionaryCache<?> cache : List.of(genreRepository.getCache(), mpaRepository.getCache())) {
+            FunctionCounter.builder(REQUESTS, cache, DictionaryCache::getHits)
+                    .tag("cache", cache.getName())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder(REQUESTS, cache, DictionaryCache::getMisses)
+                    .tag("cache", cache.getName())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder(SIZE, cache, DictionaryCache::size)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        }
+    }
+}
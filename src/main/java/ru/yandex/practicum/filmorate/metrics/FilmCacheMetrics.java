@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.FilmCache;
+
+/**
+ * Standard {@code cache.*} meters (gets by result, puts, evictions, size) for the film near cache,
+ * plus its hit ratio since startup.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmCacheMetrics implements MeterBinder {
+
+    private static final String CACHE_NAME = "film";
+    private static final String HIT_RATIO = "filmorate.film.cache.hit.ratio";
+
+    private final FilmCache filmCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, filmCache.getCache(), CACHE_NAME);
+        Gauge.builder(HIT_RATIO, filmCache, cache -> cache.getCache().stats().hitRate())
+                .register(registry);
+    }
+}
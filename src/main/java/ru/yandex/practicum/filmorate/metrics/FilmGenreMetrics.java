@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.repository.DbGenreRepository;
+
+/**
+ * film_genre rows inserted and deleted by film writes.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmGenreMetrics implements MeterBinder {
+
+    private static final String ROWS = "filmorate.film_genre.rows";
+
+    private final DbGenreRepository genreRepository;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(ROWS, genreRepository, DbGenreRepository::getInsertedRows)
+                .tag("operation", "insert")
+                .register(registry);
+        FunctionCounter.builder(ROWS, genreRepository, DbGenreRepository::getDeletedRows)
+                .tag("operation", "delete")
+                .register(registry);
+    }
+}
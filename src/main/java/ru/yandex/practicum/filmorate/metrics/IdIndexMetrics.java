@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.IdIndex;
+import ru.yandex.practicum.filmorate.repository.DbFilmRepository;
+import ru.yandex.practicum.filmorate.repository.DbUserRepository;
+
+import java.util.List;
+
+/**
+ * Lookups of unknown user and film ids rejected by the id indexes, mostly without a query.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdIndexMetrics implements MeterBinder {
+
+    private static final String REJECTED = "filmorate.id_index.rejected";
+
+    private final DbUserRepository userRepository;
+    private final DbFilmRepository filmRepository;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (IdIndex index : List.of(userRepository.getIdIndex(), filmRepository.getIdIndex())) {
+            FunctionCounter.builder(REJECTED, index, IdIndex::getRejected)
+                    .tag("index", index.getName())
+                    .register(registry);
+        }
+    }
+}
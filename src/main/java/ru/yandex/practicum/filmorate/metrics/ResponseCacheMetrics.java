@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+
+/**
+ * Standard {@code cache.*} meters for the rendered response cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheMetrics implements MeterBinder {
+
+    private static final String CACHE_NAME = "response";
+
+    private final ResponseCache responseCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responseCache.getCache(), CACHE_NAME);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times repository and service calls. Timers are tagged by class, operation (method name) and outcome,
+ * percentile histograms are switched on in application.properties.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TimedOperationsAspect {
+
+    public static final String REPOSITORY_TIMER = "filmorate.repository";
+    public static final String SERVICE_TIMER = "filmorate.service";
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    @Pointcut("execution(public * ru.yandex.practicum.filmorate.repository.FilmRepository+.*(..))"
+            + " || execution(public * ru.yandex.practicum.filmorate.repository.UserRepository+.*(..))"
+            + " || execution(public * ru.yandex.practicum.filmorate.repository.DbGenreRepository.*(..))"
+            + " || execution(public * ru.yandex.practicum.filmorate.repository.DbMpaRepository.*(..))")
+    void repositoryOperation() {
+    }
+
+    @Pointcut("execution(* ru.yandex.practicum.filmorate.repository.*.getCache())"
+            + " || execution(* ru.yandex.practicum.filmorate.repository.*.getIdIndex())"
+            + " || execution(* ru.yandex.practicum.filmorate.repository.DbGenreRepository.get*Rows())")
+    void metricsAccessor() {
+    }
+
+    @Pointcut("execution(public * ru.yandex.practicum.filmorate.service.*Service.*(..))")
+    void serviceOperation() {
+    }
+
+    @Around("repositoryOperation() && !metricsAccessor()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, joinPoint);
+    }
+
+    @Around("serviceOperation()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint);
+    }
+
+    private Object time(String timerName, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(timerName)
+                    .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotBlank;
@@ -62,6 +63,12 @@ public class Film {
     @Builder.Default
     private Set<Genre> genres = newModifiableSet(); // Наш метод для создания изменяемого Set
 
+    /**
+     * Optimistic lock version, exchanged as ETag / If-Match instead of the JSON body.
+     */
+    @JsonIgnore
+    private Integer version;
+
     public void setGenres(Collection<Genre> genres) {
         this.genres.clear();
         if (genres != null) {
@@ -79,7 +86,7 @@ public class Film {
 
     // Light Film constructor to avoid all old mem tests changes
     public Film(Integer id, String name, String description, LocalDate releaseDate, Duration duration) {
-        this(id,name,description,releaseDate,duration,null,null);
+        this(id,name,description,releaseDate,duration,null,null,null);
     }
 
 }
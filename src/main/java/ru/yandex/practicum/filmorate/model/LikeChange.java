@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.model;
+
+/**
+ * A like ({@code liked = true}) or an unlike queued for a batched write.
+ */
+public record LikeChange(Integer filmId, Integer userId, boolean liked) {
+}
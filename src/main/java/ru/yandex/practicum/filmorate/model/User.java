@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -44,6 +45,16 @@ public class User {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate birthday;
 
+    /**
+     * Optimistic lock version, exchanged as ETag / If-Match instead of the JSON body.
+     */
+    @JsonIgnore
+    private Integer version;
+
+    public User(Integer id, String name, String login, String email, LocalDate birthday) {
+        this(id, name, login, email, birthday, null);
+    }
+
     /**
      * Terms of reference of 10th sprint: The name for display can be empty - in this case, the login will be used
      */
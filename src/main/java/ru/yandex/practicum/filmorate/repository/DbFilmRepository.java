@@ -3,34 +3,48 @@ package ru.yandex.practicum.filmorate.repository;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
-import ru.yandex.practicum.filmorate.exception.FilmCreateFailed;
+import ru.yandex.practicum.filmorate.cache.IdIndex;
+import ru.yandex.practicum.filmorate.config.IdIndexProperties;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.FilmValidationException;
 import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
 import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
+import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.LikeChange;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.repository.mappers.FilmRowMapper;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 @Primary
@@ -39,12 +53,27 @@ import java.util.stream.Collectors;
 public class DbFilmRepository implements FilmRepository {
 
     private static final int DEFAULT_FILM_LIMIT = 100;
+    private static final int EXPORT_FETCH_SIZE = 500;
+    static final int IN_LIST_CHUNK_SIZE = 500;
     private static final String SQL_INSERT_FILM = "INSERT INTO \"film\" (name, description, release_date, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
-    private static final String SQL_UPDATE_FILM = "UPDATE \"film\" SET name = ?, description = ?, release_date = ?, " +
-            "duration = ?, mpa_id = ? WHERE id = ?";
+    // the FINAL TABLE wrapper returns the new version of an updated row, and nothing when no row matched
+    private static final String SQL_UPDATE_FILM = """
+            SELECT version FROM FINAL TABLE (
+                UPDATE "film" SET name = ?, description = ?, release_date = ?, duration = ?, mpa_id = ?,
+                    version = version + 1
+                WHERE id = ?
+            )
+            """;
+    private static final String SQL_UPDATE_FILM_IF_VERSION = """
+            SELECT version FROM FINAL TABLE (
+                UPDATE "film" SET name = ?, description = ?, release_date = ?, duration = ?, mpa_id = ?,
+                    version = version + 1
+                WHERE id = ? AND version = ?
+            )
+            """;
     private static final String SQL_SELECT_FILM_BY_ID_WITH_DETAILS = """
             SELECT
-                f.id, f.name, f.description, f.release_date, f.duration,
+                f.id, f.name, f.description, f.release_date, f.duration, f.version,
                 m.id AS mpa_id, m.name AS mpa_name,
                 g.id AS genre_id, g.name AS genre_name
             FROM "film" f
@@ -54,13 +83,17 @@ public class DbFilmRepository implements FilmRepository {
             WHERE f.id = ?
             ORDER BY g.id ASC
             """;
-    private static final String SQL_SELECT_FILMS_WITH_DETAILS = """
+    private static final String SQL_SELECT_FILM_IDS = "SELECT id FROM \"film\" ORDER BY id LIMIT ?";
+    private static final String SQL_SELECT_FILM_IDS_AFTER = "SELECT id FROM \"film\" WHERE id > ? ORDER BY id LIMIT ?";
+    static final String SQL_SELECT_FILM_POPULAR = "SELECT id FROM \"film\" ORDER BY likes_count DESC, id LIMIT ?";
+    private static final String SQL_SELECT_FILMS_BY_IDS = """
             SELECT
                 f.id AS film_id,
                 f.name AS film_name,
                 f.description,
                 f.release_date,
                 f.duration,
+                f.version,
                 m.id AS mpa_id,
                 m.name AS mpa_name,
                 g.id AS genre_id,
@@ -69,38 +102,61 @@ public class DbFilmRepository implements FilmRepository {
             LEFT JOIN "mpa" m ON f.mpa_id = m.id
             LEFT JOIN "film_genre" fg ON f.id = fg.film_id
             LEFT JOIN "genre" g ON fg.genre_id = g.id
+            WHERE f.id IN (%s)
             ORDER BY f.id, g.id
-            LIMIT ?
             """;
-    private static final String SQL_SELECT_FILM_LIMIT = "SELECT * FROM \"film\" ORDER BY id LIMIT ?";
-    private static final String SQL_SELECT_FILM_POPULAR = """
+    private static final String SQL_SELECT_FILMS_EXPORT = """
             SELECT
-                f.id AS film_id, f.name, f.description,
-                f.release_date, f.duration,
-                m.id AS mpa_id, m.name AS mpa_name,
-                g.id AS genre_id, g.name AS genre_name,
-                COUNT(fl.user_id) AS likes_count
+                f.id AS film_id,
+                f.name AS film_name,
+                f.description,
+                f.release_date,
+                f.duration,
+                f.version,
+                m.id AS mpa_id,
+                m.name AS mpa_name,
+                g.id AS genre_id,
+                g.name AS genre_name
             FROM "film" f
             LEFT JOIN "mpa" m ON f.mpa_id = m.id
             LEFT JOIN "film_genre" fg ON f.id = fg.film_id
             LEFT JOIN "genre" g ON fg.genre_id = g.id
-            LEFT JOIN "film_like" fl ON f.id = fl.film_id
-            GROUP BY f.id, m.id, g.id
-            ORDER BY likes_count DESC
-            LIMIT ?
+            ORDER BY f.id, g.id
+            """;
+    private static final String SQL_SELECT_LIKES_COUNTS = "SELECT id, likes_count FROM \"film\"";
+    private static final String SQL_SELECT_IDS_AFTER = "SELECT id FROM \"film\" WHERE id > ?";
+    // joins film and user, so a missing film or user inserts nothing instead of raising a foreign key violation
+    private static final String SQL_INSERT_FILM_LIKE = """
+            INSERT INTO "film_like" (film_id, user_id)
+            SELECT f.id, u.id
+            FROM "film" f, "user" u
+            WHERE f.id = ? AND u.id = ?
+              AND NOT EXISTS (SELECT 1 FROM "film_like" WHERE film_id = ? AND user_id = ?)
             """;
+    private static final String SQL_SELECT_LIKE_TARGETS = """
+            SELECT
+                (SELECT COUNT(*) FROM "film" WHERE id = ?) AS film_count,
+                (SELECT COUNT(*) FROM "user" WHERE id = ?) AS user_count
+            """;
+    private static final String SQL_DELETE_FILM_LIKE = "DELETE FROM \"film_like\" WHERE film_id = ? AND user_id = ?";
+    private static final String SQL_UPDATE_FILM_LIKES_COUNT = "UPDATE \"film\" SET likes_count = likes_count + ? WHERE id = ?";
 
     private final JdbcTemplate jdbcTemplate;
     private final DbMpaRepository mpaRepository;
     private final DbGenreRepository genreRepository;
     private final FilmRowMapper filmRowMapper;
+    private final DbUserRepository userRepository;
+    private final IdIndexProperties idIndexProperties;
+    private final IdIndex idIndex = new IdIndex("film", this::loadIds, this::getIdIndexCatchUpInterval);
 
+    /**
+     * The returned film is built from the input and the dictionary caches, the film is not read back.
+     */
     @Override
     @Transactional
     public Optional<Film> create(Film film) {
-
-        validateMpa(film.getMpa());
-        validateGenres(film.getGenres());
+        Mpa mpa = resolveMpa(film.getMpa());
+        List<Genre> genres = resolveGenres(film.getGenres());
 
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
@@ -108,57 +164,120 @@ public class DbFilmRepository implements FilmRepository {
                     SQL_INSERT_FILM,
                     Statement.RETURN_GENERATED_KEYS
             );
-            ps.setString(1, film.getName());
-            ps.setString(2, film.getDescription());
-            ps.setDate(3, Date.valueOf(film.getReleaseDate()));
-            ps.setLong(4, film.getDuration().toMinutes());
-            ps.setInt(5, film.getMpa().getId());
+            setInsertValues(ps, film, mpa);
             return ps;
         }, keyHolder);
 
         Integer generatedId = Objects.requireNonNull(keyHolder.getKey()).intValue();
         film.setId(generatedId);
 
+        film.setVersion(0);
+        idIndex.add(generatedId);
         genreRepository.saveGenres(film, false);
 
-        return Optional.ofNullable(getFilmWithDetails(generatedId).orElseThrow(() -> new FilmCreateFailed("Film not created")));
+        return Optional.of(withDictionaryNames(film, mpa, genres));
     }
 
+    /**
+     * Inserts the films with one batch statement and all their genres with another.
+     * References must be checked beforehand: an unknown MPA or genre fails the whole call.
+     */
+    @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        List<Film> created = films.stream()
+                .map(film -> withDictionaryNames(film, resolveMpa(film.getMpa()), resolveGenres(film.getGenres())))
+                .toList();
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(SQL_INSERT_FILM, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Film film = created.get(i);
+                        setInsertValues(ps, film, film.getMpa());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return created.size();
+                    }
+                },
+                keyHolder
+        );
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < created.size(); i++) {
+            created.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+            created.get(i).setVersion(0);
+            idIndex.add(created.get(i).getId());
+        }
 
+        genreRepository.insertGenres(created);
+        return created;
+    }
+
+    private void setInsertValues(PreparedStatement ps, Film film, Mpa mpa) throws SQLException {
+        ps.setString(1, film.getName());
+        ps.setString(2, film.getDescription());
+        ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+        ps.setLong(4, film.getDuration().toMinutes());
+        ps.setInt(5, mpa.getId());
+    }
+
+    /**
+     * Like {@link #create(Film)}, returns the input with canonical MPA and genre names and its new version.
+     * With a version set on the input the row is only updated if it still has that version.
+     *
+     * @throws FilmNotFoundException     if no film has the ID
+     * @throws VersionConflictException if the film is not at the expected version (or no longer exists)
+     */
+    @Override
+    @Transactional
     public Optional<Film> update(Film film) {
         if (film.getId() == null) {
             throw new FilmValidationException("Film ID must be provided for update");
         }
-        if (!existsById(film.getId())) {
+
+        Mpa mpa = resolveMpa(film.getMpa());
+        List<Genre> genres = resolveGenres(film.getGenres());
+
+        Object[] values = {film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration().toMinutes(), mpa.getId(), film.getId()};
+        List<Integer> versions = film.getVersion() == null
+                ? jdbcTemplate.queryForList(SQL_UPDATE_FILM, Integer.class, values)
+                : jdbcTemplate.queryForList(SQL_UPDATE_FILM_IF_VERSION, Integer.class, append(values, film.getVersion()));
+
+        if (versions.isEmpty()) {
+            if (film.getVersion() != null) {
+                throw new VersionConflictException("The Film with ID=%s is not at version %s"
+                        .formatted(film.getId(), film.getVersion()));
+            }
             throw new FilmNotFoundException("The Film with ID=%s not found".formatted(film.getId()));
         }
-
-        validateMpa(film.getMpa());
-        validateGenres(film.getGenres());
-
-        jdbcTemplate.update(
-                SQL_UPDATE_FILM,
-                film.getName(),
-                film.getDescription(),
-                film.getReleaseDate(),
-                film.getDuration().toMinutes(),
-                film.getMpa().getId(),
-                film.getId()
-        );
+        film.setVersion(versions.getFirst());
 
         genreRepository.saveGenres(film, true);
 
-        return Optional.ofNullable(getFilmWithDetails(film.getId()).orElseThrow(() -> new FilmCreateFailed("Film create failed")));
+        return Optional.of(withDictionaryNames(film, mpa, genres));
     }
 
+    private static Object[] append(Object[] values, Object value) {
+        Object[] appended = Arrays.copyOf(values, values.length + 1);
+        appended[values.length] = value;
+        return appended;
+    }
 
-    private void validateMpa(Mpa mpa) {
-        if (mpaRepository.getMpaById(mpa.getId()).isEmpty()) {
-            throw new MpaNotFoundException("MPA rating with id " + mpa.getId() + " not found");
-        }
+    private Mpa resolveMpa(Mpa mpa) {
+        return mpaRepository.getMpaById(mpa.getId())
+                .orElseThrow(() -> new MpaNotFoundException("MPA rating with id " + mpa.getId() + " not found"));
     }
 
-    private void validateGenres(Set<Genre> genres) {
+    /**
+     * @return the cached genres for the requested ids, ordered by id as {@link #getById(Integer)} returns them
+     */
+    private List<Genre> resolveGenres(Set<Genre> genres) {
         Set<Integer> genreIds = genres.stream()
                 .map(Genre::getId)
                 .collect(Collectors.toSet());
@@ -167,15 +286,25 @@ public class DbFilmRepository implements FilmRepository {
             throw new ValidationException("Duplicate genre ids found");
         }
 
-        List<Integer> existingIds = genreRepository.findAllExistingIds(genreIds);
-
-        Set<Integer> missingIds = genreIds.stream()
-                .filter(id -> !existingIds.contains(id))
-                .collect(Collectors.toSet());
+        List<Genre> resolved = new ArrayList<>(genreIds.size());
+        Set<Integer> missingIds = new HashSet<>();
+        for (Integer genreId : genreIds) {
+            genreRepository.findById(genreId).ifPresentOrElse(resolved::add, () -> missingIds.add(genreId));
+        }
 
         if (!missingIds.isEmpty()) {
             throw new GenreNotFoundException("Genres not found with ids: " + missingIds);
         }
+
+        resolved.sort(Comparator.comparing(Genre::getId));
+        return resolved;
+    }
+
+    private Film withDictionaryNames(Film film, Mpa mpa, List<Genre> genres) {
+        return film.toBuilder()
+                .mpa(mpa)
+                .genres(new LinkedHashSet<>(genres))
+                .build();
     }
 
     public Optional<Film> getFilmWithDetails(Integer filmId) {
@@ -190,6 +319,7 @@ public class DbFilmRepository implements FilmRepository {
                     film.setId(currentId);
                     film.setName(rs.getString("name"));
                     film.setDescription(rs.getString("description"));
+                    film.setVersion(rs.getInt("version"));
 
                     Date releaseDate = rs.getDate("release_date");
                     if (releaseDate != null) {
@@ -229,10 +359,119 @@ public class DbFilmRepository implements FilmRepository {
 
     @Override
     public Optional<Film> getById(Integer id) {
+        if (!idIndex.mightContain(id)) {
+            return Optional.empty();
+        }
         return getFilmWithDetails(id);
     }
 
+    @Override
+    public Optional<Integer> findVersion(Integer id) {
+        if (!idIndex.mightContain(id)) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.queryForList("SELECT version FROM \"film\" WHERE id = ?", Integer.class, id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Loads films with their genres by {@value #IN_LIST_CHUNK_SIZE} ids per query; ids missing from the
+     * id index are not queried.
+     *
+     * @return the found films in the order of the ids
+     */
+    @Override
+    public List<Film> findAllByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> uniqueIds = new LinkedHashSet<>(ids).stream()
+                .filter(idIndex::mightContain)
+                .toList();
+        Map<Integer, Film> filmsMap = new HashMap<>();
+
+        for (int from = 0; from < uniqueIds.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Integer> chunk = uniqueIds.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, uniqueIds.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+
+            jdbcTemplate.query(SQL_SELECT_FILMS_BY_IDS.formatted(placeholders), rs -> {
+                Film film = filmsMap.get(rs.getInt("film_id"));
+                if (film == null) {
+                    film = mapFilm(rs);
+                    filmsMap.put(film.getId(), film);
+                }
+                addGenre(film, rs);
+            }, chunk.toArray());
+        }
+
+        return ids.stream()
+                .map(filmsMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void exportAll(Consumer<Film> consumer) {
+        // rows come ordered by film id, so a film is complete once the next id shows up
+        Film[] current = new Film[1];
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    SQL_SELECT_FILMS_EXPORT,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY
+            );
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            int filmId = rs.getInt("film_id");
+            if (current[0] == null || current[0].getId() != filmId) {
+                if (current[0] != null) {
+                    consumer.accept(current[0]);
+                }
+                current[0] = mapFilm(rs);
+            }
+            addGenre(current[0], rs);
+        });
+
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
+    }
+
+    private Film mapFilm(ResultSet rs) throws SQLException {
+        return Film.builder()
+                .id(rs.getInt("film_id"))
+                .name(rs.getString("film_name"))
+                .description(rs.getString("description"))
+                .releaseDate(rs.getDate("release_date").toLocalDate())
+                .duration(Duration.ofMinutes(rs.getInt("duration")))
+                .version(rs.getInt("version"))
+                .mpa(new Mpa(
+                        rs.getInt("mpa_id"),
+                        rs.getString("mpa_name")))
+                .genres(new LinkedHashSet<>())
+                .build();
+    }
+
+    private void addGenre(Film film, ResultSet rs) throws SQLException {
+        if (rs.getObject("genre_id") != null) {
+            film.addGenre(new Genre(
+                    rs.getInt("genre_id"),
+                    rs.getString("genre_name")
+            ));
+        }
+    }
+
+    /**
+     * Ids missing from the id index are rejected without a query.
+     */
     public boolean existsById(Integer id) {
+        if (!idIndex.mightContain(id)) {
+            return false;
+        }
         Integer count = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM \"film\" WHERE id = ?",
                 Integer.class,
@@ -247,93 +486,146 @@ public class DbFilmRepository implements FilmRepository {
     }
 
     private List<Film> findAll(int limit) {
-        Map<Integer, Film> filmsMap = new LinkedHashMap<>();
+        return findAllByIds(jdbcTemplate.queryForList(SQL_SELECT_FILM_IDS, Integer.class, limit));
+    }
 
-        jdbcTemplate.query(SQL_SELECT_FILMS_WITH_DETAILS, rs -> {
-            int filmId = rs.getInt("film_id");
-            Film film = filmsMap.get(filmId);
-
-            if (film == null) {
-                film = Film.builder()
-                        .id(filmId)
-                        .name(rs.getString("film_name"))
-                        .description(rs.getString("description"))
-                        .releaseDate(rs.getDate("release_date").toLocalDate())
-                        .duration(Duration.ofMinutes(rs.getInt("duration")))
-                        .mpa(new Mpa(
-                                rs.getInt("mpa_id"),
-                                rs.getString("mpa_name")))
-                        .genres(new LinkedHashSet<>())
-                        .build();
-                filmsMap.put(filmId, film);
-            }
+    @Override
+    public List<Film> findPage(Integer afterId, int limit) {
+        if (afterId == null) {
+            return findAll(limit);
+        }
+        return findAllByIds(jdbcTemplate.queryForList(SQL_SELECT_FILM_IDS_AFTER, Integer.class, afterId, limit));
+    }
 
-            if (rs.getObject("genre_id") != null) {
-                Genre genre = new Genre(
-                        rs.getInt("genre_id"),
-                        rs.getString("genre_name")
-                );
-                film.getGenres().add(genre);
-            }
-        }, limit);
+    @Override
+    public List<Film> getPopularFilms(int limit) {
+        return findAllByIds(jdbcTemplate.queryForList(SQL_SELECT_FILM_POPULAR, Integer.class, limit));
+    }
+
+    /**
+     * @return {@code false} if the like already exists
+     * @throws FilmNotFoundException if the film does not exist
+     * @throws UserNotFoundException if the user does not exist
+     */
+    @Override
+    @Transactional
+    public boolean addLike(Integer filmId, Integer userId) {
+        checkIndexed(filmId, userId);
 
-        return new ArrayList<>(filmsMap.values());
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(SQL_INSERT_FILM_LIKE, filmId, userId, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            // a concurrent request inserted the same like first
+            return false;
+        }
+
+        if (inserted == 0) {
+            checkLikeTargetsExist(filmId, userId);
+            return false;
+        }
+        jdbcTemplate.update(SQL_UPDATE_FILM_LIKES_COUNT, 1, filmId);
+        return true;
     }
 
-    public List<Film> getPopularFilms(int limit) {
-        Map<Integer, Film> filmMap = new LinkedHashMap<>();
+    /**
+     * @return {@code false} if there was no such like
+     * @throws FilmNotFoundException if the film does not exist
+     * @throws UserNotFoundException if the user does not exist
+     */
+    @Override
+    @Transactional
+    public boolean removeLike(Integer filmId, Integer userId) {
+        checkIndexed(filmId, userId);
 
-        jdbcTemplate.query(SQL_SELECT_FILM_POPULAR, rs -> {
-            int filmId = rs.getInt("film_id");
-            Film film = filmMap.get(filmId);
-
-            if (film == null) {
-                film = Film.builder()
-                        .id(filmId)
-                        .name(rs.getString("name"))
-                        .description(rs.getString("description"))
-                        .releaseDate(rs.getDate("release_date").toLocalDate())
-                        .duration(Duration.ofMinutes(rs.getInt("duration")))
-                        .mpa(new Mpa(
-                                rs.getInt("mpa_id"),
-                                rs.getString("mpa_name")))
-                        .genres(new LinkedHashSet<>())
-                        .build();
-                filmMap.put(filmId, film);
+        if (jdbcTemplate.update(SQL_DELETE_FILM_LIKE, filmId, userId) == 0) {
+            checkLikeTargetsExist(filmId, userId);
+            return false;
+        }
+        jdbcTemplate.update(SQL_UPDATE_FILM_LIKES_COUNT, -1, filmId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, Integer> applyLikeChanges(Collection<LikeChange> changes) {
+        List<LikeChange> likes = new ArrayList<>();
+        List<LikeChange> unlikes = new ArrayList<>();
+        for (LikeChange change : changes) {
+            (change.liked() ? likes : unlikes).add(change);
+        }
+
+        Map<Integer, Integer> deltas = new HashMap<>();
+        addDeltas(deltas, likes, batchUpdate(SQL_INSERT_FILM_LIKE, likes.stream()
+                .map(like -> new Object[]{like.filmId(), like.userId(), like.filmId(), like.userId()})
+                .toList()), 1);
+        addDeltas(deltas, unlikes, batchUpdate(SQL_DELETE_FILM_LIKE, unlikes.stream()
+                .map(unlike -> new Object[]{unlike.filmId(), unlike.userId()})
+                .toList()), -1);
+        deltas.values().removeIf(delta -> delta == 0);
+
+        batchUpdate(SQL_UPDATE_FILM_LIKES_COUNT, deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList());
+        return deltas;
+    }
+
+    private int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+        return batchArgs.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+
+    private void addDeltas(Map<Integer, Integer> deltas, List<LikeChange> changes, int[] counts, int delta) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                deltas.merge(changes.get(i).filmId(), delta, Integer::sum);
             }
+        }
+    }
+
+    private void checkIndexed(Integer filmId, Integer userId) {
+        if (!idIndex.mightContain(filmId)) {
+            throw new FilmNotFoundException("Film with ID %s not found".formatted(filmId));
+        }
+        if (!userRepository.getIdIndex().mightContain(userId)) {
+            throw new UserNotFoundException("User with ID %s not found".formatted(userId));
+        }
+    }
 
-            if (rs.getObject("genre_id") != null) {
-                film.addGenre(new Genre(
-                        rs.getInt("genre_id"),
-                        rs.getString("genre_name")
-                ));
+    private void checkLikeTargetsExist(Integer filmId, Integer userId) {
+        jdbcTemplate.query(SQL_SELECT_LIKE_TARGETS, rs -> {
+            if (rs.getInt("film_count") == 0) {
+                throw new FilmNotFoundException("Film with ID %s not found".formatted(filmId));
             }
-        }, limit);
+            if (rs.getInt("user_count") == 0) {
+                throw new UserNotFoundException("User with ID %s not found".formatted(userId));
+            }
+        }, filmId, userId);
+    }
 
-        return new ArrayList<>(filmMap.values());
+    @Override
+    public Map<Integer, Integer> getLikesCounts() {
+        Map<Integer, Integer> likesCounts = new HashMap<>();
+        jdbcTemplate.query(SQL_SELECT_LIKES_COUNTS, rs -> {
+            likesCounts.put(rs.getInt("id"), rs.getInt("likes_count"));
+        });
+        return likesCounts;
     }
 
-    public boolean addLike(Integer filmId, Integer userId) {
-        try {
-            int updated = jdbcTemplate.update(
-                    "INSERT INTO \"film_like\" (film_id, user_id) VALUES (?, ?)",
-                    filmId,
-                    userId
-            );
-            return updated > 0;
-        } catch (Exception e) {
-            // В случае нарушения уникальности (лайк уже существует)
-            return false;
-        }
+    /**
+     * Ids of all stored films; a miss means the film does not exist.
+     */
+    public IdIndex getIdIndex() {
+        return idIndex;
     }
 
-    public boolean removeLike(Integer filmId, Integer userId) {
-        int updated = jdbcTemplate.update(
-                "DELETE FROM \"film_like\" WHERE film_id = ? AND user_id = ?",
-                filmId,
-                userId
-        );
-        return updated > 0;
+    private void loadIds(Integer afterId, IntConsumer consumer) {
+        jdbcTemplate.query(SQL_SELECT_IDS_AFTER, rs -> {
+            consumer.accept(rs.getInt("id"));
+        }, afterId);
+    }
+
+    private Duration getIdIndexCatchUpInterval() {
+        return idIndexProperties.getCatchUpInterval();
     }
 
 }
@@ -1,23 +1,28 @@
 package ru.yandex.practicum.filmorate.repository;
 
-import lombok.AllArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.repository.mappers.GenreRowMapper;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 @Repository("dbGenreRepository")
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class DbGenreRepository {
 
-    private static final String SQL_SELECT_GENRE_BY_ID = "SELECT * FROM \"genre\" WHERE id = ?";
     private static final String SQL_SELECT_GENRE_BY_FILM_ID = """
         SELECT g.id, g.name
         FROM "genre" g
@@ -25,53 +30,107 @@ public class DbGenreRepository {
         WHERE fg.film_id = ?
         ORDER BY g.id ASC
         """;
-    private static final String SQL_DELETE_FILM_GENRE_BY_FILM_ID = "DELETE FROM \"film_genre\" WHERE film_id = ?";
+    private static final String SQL_SELECT_GENRE_IDS_BY_FILM_ID = "SELECT genre_id FROM \"film_genre\" WHERE film_id = ?";
+    private static final String SQL_DELETE_FILM_GENRE = "DELETE FROM \"film_genre\" WHERE film_id = ? AND genre_id = ?";
     private static final String SQL_INSERT_FILM_GENRE = "INSERT INTO \"film_genre\" (film_id, genre_id) VALUES (?, ?)";
     private static final String SQL_SELECT_GENRE_ORDER_BY_ID = "SELECT * FROM \"genre\" ORDER BY id ASC";
 
     private final JdbcTemplate jdbcTemplate;
     private final GenreRowMapper genreRowMapper;
+    private final DictionaryCache<Genre> cache = new DictionaryCache<>("genre", this::loadAll, Genre::getId);
+    private final LongAdder insertedRows = new LongAdder();
+    private final LongAdder deletedRows = new LongAdder();
+
+    @PostConstruct
+    public void warmUp() {
+        cache.load();
+    }
 
     public Optional<Genre> findById(Integer id) {
-        List<Genre> genres = jdbcTemplate.query(SQL_SELECT_GENRE_BY_ID, genreRowMapper, id);
-        return genres.stream().findFirst();
+        return cache.get(id);
     }
 
     public List<Genre> findByFilmId(Integer filmId) {
         return jdbcTemplate.query(SQL_SELECT_GENRE_BY_FILM_ID, genreRowMapper, filmId);
     }
 
-    public void saveGenres(Film film,boolean isUpdate) {
+    /**
+     * On update only the difference to the stored genres is written, unchanged genres cost a single select.
+     */
+    public void saveGenres(Film film, boolean isUpdate) {
+        Set<Integer> toInsert = film.getGenres() == null ? new LinkedHashSet<>() : film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<Integer> toDelete = new ArrayList<>();
+
         if (isUpdate) {
-            jdbcTemplate.update(SQL_DELETE_FILM_GENRE_BY_FILM_ID, film.getId());
+            for (Integer storedId : jdbcTemplate.queryForList(SQL_SELECT_GENRE_IDS_BY_FILM_ID, Integer.class, film.getId())) {
+                if (!toInsert.remove(storedId)) {
+                    toDelete.add(storedId);
+                }
+            }
         }
 
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            List<Object[]> batchArgs = film.getGenres().stream()
-                    .map(genre -> new Object[]{film.getId(), genre.getId()})
-                    .collect(Collectors.toList());
-            jdbcTemplate.batchUpdate(SQL_INSERT_FILM_GENRE, batchArgs);
+        deletedRows.add(batchUpdate(SQL_DELETE_FILM_GENRE, film.getId(), toDelete));
+        insertedRows.add(batchUpdate(SQL_INSERT_FILM_GENRE, film.getId(), toInsert));
+    }
+
+    /**
+     * Inserts the genres of newly created films with a single batch.
+     */
+    public void insertGenres(Collection<Film> films) {
+        List<Object[]> batchArgs = films.stream()
+                .flatMap(film -> film.getGenres().stream()
+                        .map(genre -> new Object[]{film.getId(), genre.getId()}))
+                .collect(Collectors.toList());
+        insertedRows.add(batchUpdate(SQL_INSERT_FILM_GENRE, batchArgs));
+    }
+
+    private int batchUpdate(String sql, Integer filmId, Collection<Integer> genreIds) {
+        return batchUpdate(sql, genreIds.stream()
+                .map(genreId -> new Object[]{filmId, genreId})
+                .collect(Collectors.toList()));
+    }
+
+    private int batchUpdate(String sql, List<Object[]> batchArgs) {
+        if (batchArgs.isEmpty()) {
+            return 0;
         }
+
+        return Arrays.stream(jdbcTemplate.batchUpdate(sql, batchArgs))
+                .filter(count -> count > 0)
+                .sum();
     }
 
     public List<Genre> findAll() {
-        return jdbcTemplate.query(SQL_SELECT_GENRE_ORDER_BY_ID, genreRowMapper);
+        return cache.values();
     }
 
+    public Set<Integer> findAllExistingIds(Set<Integer> ids) {
+        return cache.existingIds(ids);
+    }
 
-    public List<Integer> findAllExistingIds(Set<Integer> ids) {
-        if (ids.isEmpty()) {
-            return Collections.emptyList();
-        }
+    public DictionaryCache<Genre> getCache() {
+        return cache;
+    }
+
+    public long getInsertedRows() {
+        return insertedRows.sum();
+    }
 
-        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
-        String sql = "SELECT id FROM \"genre\" WHERE id IN (" + placeholders + ")";
+    public long getDeletedRows() {
+        return deletedRows.sum();
+    }
 
-        return jdbcTemplate.queryForList(
-                sql,
-                Integer.class,
-                ids.toArray()
-        );
+    /**
+     * Must be called after any write to the genre table.
+     */
+    public void invalidateCache() {
+        cache.invalidate();
+    }
+
+    private List<Genre> loadAll() {
+        return jdbcTemplate.query(SQL_SELECT_GENRE_ORDER_BY_ID, genreRowMapper);
     }
 
 }
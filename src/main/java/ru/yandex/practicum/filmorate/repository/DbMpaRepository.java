@@ -1,8 +1,10 @@
 package ru.yandex.practicum.filmorate.repository;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.DictionaryCache;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.repository.mappers.MpaRowMapper;
 
@@ -13,16 +15,37 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class DbMpaRepository {
 
-    private static final String SQL_SELECT_MPA_BY_ID = "SELECT * FROM \"mpa\" WHERE id = ?";
     private static final String SQL_SELECT_MPA_ORDER_BY_ID = "SELECT * FROM \"mpa\" ORDER BY id ASC";
+
     private final JdbcTemplate jdbcTemplate;
     private final MpaRowMapper mpaRowMapper;
+    private final DictionaryCache<Mpa> cache = new DictionaryCache<>("mpa", this::loadAll, Mpa::getId);
+
+    @PostConstruct
+    public void warmUp() {
+        cache.load();
+    }
 
     public Optional<Mpa> getMpaById(Integer id) {
-        return jdbcTemplate.query(SQL_SELECT_MPA_BY_ID, mpaRowMapper, id).stream().findFirst();
+        return cache.get(id);
     }
 
     public List<Mpa> getAllMpa() {
+        return cache.values();
+    }
+
+    public DictionaryCache<Mpa> getCache() {
+        return cache;
+    }
+
+    /**
+     * Must be called after any write to the mpa table.
+     */
+    public void invalidateCache() {
+        cache.invalidate();
+    }
+
+    private List<Mpa> loadAll() {
         return jdbcTemplate.query(SQL_SELECT_MPA_ORDER_BY_ID, mpaRowMapper);
     }
 }
@@ -2,20 +2,37 @@ package ru.yandex.practicum.filmorate.repository;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.IdIndex;
+import ru.yandex.practicum.filmorate.config.IdIndexProperties;
+import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.repository.mappers.UserRowMapper;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
 
 @Primary
 @Repository
@@ -23,14 +40,40 @@ import java.util.Optional;
 public class DbUserRepository implements UserRepository {
 
     private static final String SQL_INSERT_USER = "INSERT INTO \"user\" (email, login, name, birthday) VALUES (?, ?, ?, ?)";
-    private static final String SQL_UPDATE_USER = "UPDATE \"user\" SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
-    private static final String SQL_SELECT_ALL = "SELECT id, email, login, name, birthday FROM \"user\"";
-    private static final String SQL_SELECT_BY_ID = "SELECT id, email, login, name, birthday FROM \"user\" WHERE id = ?";
+    // the FINAL TABLE wrapper returns the new version of an updated row, and nothing when no row matched
+    private static final String SQL_UPDATE_USER = """
+            SELECT version FROM FINAL TABLE (
+                UPDATE "user" SET email = ?, login = ?, name = ?, birthday = ?, version = version + 1
+                WHERE id = ?
+            )
+            """;
+    private static final String SQL_UPDATE_USER_IF_VERSION = """
+            SELECT version FROM FINAL TABLE (
+                UPDATE "user" SET email = ?, login = ?, name = ?, birthday = ?, version = version + 1
+                WHERE id = ? AND version = ?
+            )
+            """;
+    private static final String SQL_SELECT_ALL = "SELECT id, email, login, name, birthday, version FROM \"user\"";
+    private static final String SQL_SELECT_EXPORT = "SELECT id, email, login, name, birthday, version FROM \"user\" ORDER BY id";
+    private static final String SQL_SELECT_PAGE = "SELECT id, email, login, name, birthday, version FROM \"user\" ORDER BY id LIMIT ?";
+    private static final String SQL_SELECT_PAGE_AFTER = "SELECT id, email, login, name, birthday, version FROM \"user\" " +
+            "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SQL_SELECT_BY_ID = "SELECT id, email, login, name, birthday, version FROM \"user\" WHERE id = ?";
+    private static final String SQL_SELECT_BY_IDS = "SELECT id, email, login, name, birthday, version FROM \"user\" WHERE id IN (%s)";
     private static final String SQL_EXISTS_BY_ID = "SELECT COUNT(*) FROM \"user\" WHERE id = ?";
-    private static final String SQL_INSERT_FRIENDSHIP = "INSERT INTO \"friendship\" (user_id, friend_id, accepted) VALUES (?, ?, true)";
+    private static final String SQL_SELECT_IDS_AFTER = "SELECT id FROM \"user\" WHERE id > ?";
+    // joins both users, so a missing user inserts nothing instead of raising a foreign key violation
+    private static final String SQL_INSERT_FRIENDSHIP = """
+            INSERT INTO "friendship" (user_id, friend_id, accepted)
+            SELECT u.id, f.id, true
+            FROM "user" u, "user" f
+            WHERE u.id = ? AND f.id = ?
+              AND NOT EXISTS (SELECT 1 FROM "friendship" WHERE user_id = ? AND friend_id = ?)
+            """;
+    private static final String SQL_SELECT_EXISTING_IDS = "SELECT id FROM \"user\" WHERE id IN (?, ?)";
     private static final String SQL_DELETE_FRIENDSHIP = "DELETE FROM \"friendship\" WHERE user_id = ? AND friend_id = ?";
     private static final String SQL_SELECT_FRIENDSHIP_BY_USER_ID = "SELECT friend_id FROM \"friendship\" WHERE user_id = ?";
-    private static final String SQL_SELECT_FRIENDSHIP_COMMON = """
+    static final String SQL_SELECT_FRIENDSHIP_COMMON = """
             SELECT f1.friend_id
             FROM "friendship" f1
             JOIN "friendship" f2 ON f1.friend_id = f2.friend_id
@@ -38,8 +81,13 @@ public class DbUserRepository implements UserRepository {
             """;
     private static final String SQL_SELECT_FRIENDSHIP_BY_IDS = "SELECT COUNT(*) FROM \"friendship\" WHERE user_id = ? AND friend_id = ?";
 
+    private static final int EXPORT_FETCH_SIZE = 500;
+    static final int IN_LIST_CHUNK_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
     private final UserRowMapper userRowMapper;
+    private final IdIndexProperties idIndexProperties;
+    private final IdIndex idIndex = new IdIndex("user", this::loadIds, this::getIdIndexCatchUpInterval);
 
     @Override
     @Transactional
@@ -48,29 +96,80 @@ public class DbUserRepository implements UserRepository {
 
         jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(SQL_INSERT_USER, Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, user.getEmail());
-            ps.setString(2, user.getLogin());
-            ps.setString(3, user.getName());
-            ps.setDate(4, Date.valueOf(user.getBirthday()));
+            setInsertValues(ps, user);
             return ps;
         }, keyHolder);
 
         user.setId(Objects.requireNonNull(keyHolder.getKey()).intValue());
+        user.setVersion(0);
+        idIndex.add(user.getId());
         return Optional.of(user);
     }
 
+    /**
+     * Inserts the users with one batch statement.
+     */
     @Override
     @Transactional
-    public Optional<User> update(User user) {
-        int updated = jdbcTemplate.update(SQL_UPDATE_USER,
-                user.getEmail(),
-                user.getLogin(),
-                user.getName(),
-                Date.valueOf(user.getBirthday()),
-                user.getId()
+    public List<User> createAll(List<User> users) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(SQL_INSERT_USER, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setInsertValues(ps, users.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder
         );
 
-        return updated == 1 ? Optional.of(user) : Optional.empty();
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+            users.get(i).setVersion(0);
+            idIndex.add(users.get(i).getId());
+        }
+        return users;
+    }
+
+    private void setInsertValues(PreparedStatement ps, User user) throws SQLException {
+        ps.setString(1, user.getEmail());
+        ps.setString(2, user.getLogin());
+        ps.setString(3, user.getName());
+        ps.setDate(4, Date.valueOf(user.getBirthday()));
+    }
+
+    /**
+     * Returns the input with its new version. With a version set on the input the row is only updated
+     * if it still has that version.
+     *
+     * @return empty if no user has the ID
+     * @throws VersionConflictException if the user is not at the expected version (or no longer exists)
+     */
+    @Override
+    @Transactional
+    public Optional<User> update(User user) {
+        List<Integer> versions = user.getVersion() == null
+                ? jdbcTemplate.queryForList(SQL_UPDATE_USER, Integer.class, user.getEmail(), user.getLogin(),
+                        user.getName(), Date.valueOf(user.getBirthday()), user.getId())
+                : jdbcTemplate.queryForList(SQL_UPDATE_USER_IF_VERSION, Integer.class, user.getEmail(), user.getLogin(),
+                        user.getName(), Date.valueOf(user.getBirthday()), user.getId(), user.getVersion());
+
+        if (versions.isEmpty()) {
+            if (user.getVersion() != null) {
+                throw new VersionConflictException("The User with ID=%s is not at version %s"
+                        .formatted(user.getId(), user.getVersion()));
+            }
+            return Optional.empty();
+        }
+        user.setVersion(versions.getFirst());
+        return Optional.of(user);
     }
 
     @Override
@@ -78,28 +177,143 @@ public class DbUserRepository implements UserRepository {
         return jdbcTemplate.query(SQL_SELECT_ALL, userRowMapper);
     }
 
+    @Override
+    public List<User> findPage(Integer afterId, int limit) {
+        if (afterId == null) {
+            return jdbcTemplate.query(SQL_SELECT_PAGE, userRowMapper, limit);
+        }
+        return jdbcTemplate.query(SQL_SELECT_PAGE_AFTER, userRowMapper, afterId, limit);
+    }
+
+    @Override
+    public void exportAll(Consumer<User> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    SQL_SELECT_EXPORT,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY
+            );
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(userRowMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    /**
+     * Ids missing from the id index are rejected without a query.
+     */
     @Override
     public boolean existsById(Integer id) {
+        if (!idIndex.mightContain(id)) {
+            return false;
+        }
         Integer count = jdbcTemplate.queryForObject(SQL_EXISTS_BY_ID, Integer.class, id);
         return count != null && count > 0;
     }
 
+    @Override
+    public boolean mightExist(Integer id) {
+        return idIndex.mightContain(id);
+    }
+
     @Override
     public Optional<User> getById(Integer id) {
+        if (!idIndex.mightContain(id)) {
+            return Optional.empty();
+        }
         List<User> users = jdbcTemplate.query(SQL_SELECT_BY_ID, userRowMapper, id);
         return users.isEmpty() ? Optional.empty() : Optional.of(users.getFirst());
     }
 
+    /**
+     * Loads users by {@value #IN_LIST_CHUNK_SIZE} ids per query; ids missing from the id index are not queried.
+     *
+     * @return the found users in the order of the ids
+     */
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> uniqueIds = new LinkedHashSet<>(ids).stream()
+                .filter(idIndex::mightContain)
+                .toList();
+        Map<Integer, User> usersMap = new HashMap<>();
+
+        for (int from = 0; from < uniqueIds.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Integer> chunk = uniqueIds.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, uniqueIds.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+
+            jdbcTemplate.query(SQL_SELECT_BY_IDS.formatted(placeholders), userRowMapper, chunk.toArray())
+                    .forEach(user -> usersMap.put(user.getId(), user));
+        }
+
+        return ids.stream()
+                .map(usersMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return {@code false} if the friendship already exists
+     * @throws UserNotFoundException if either user does not exist
+     */
     @Override
     @Transactional
     public boolean addFriend(Integer userId, Integer friendId) {
-        return jdbcTemplate.update(SQL_INSERT_FRIENDSHIP, userId, friendId) > 0;
+        checkIndexed(userId, friendId);
+
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(SQL_INSERT_FRIENDSHIP, userId, friendId, userId, friendId);
+        } catch (DuplicateKeyException e) {
+            // a concurrent request inserted the same friendship first
+            return false;
+        }
+
+        if (inserted == 0) {
+            checkUsersExist(userId, friendId);
+            return false;
+        }
+        return true;
     }
 
+    /**
+     * Removes the friendship together with the reverse one, if any.
+     *
+     * @return {@code false} if the user had no such friend
+     * @throws UserNotFoundException if either user does not exist
+     */
     @Override
     @Transactional
     public boolean removeFriend(Integer userId, Integer friendId) {
-        return jdbcTemplate.update(SQL_DELETE_FRIENDSHIP, userId, friendId) > 0;
+        checkIndexed(userId, friendId);
+
+        if (jdbcTemplate.update(SQL_DELETE_FRIENDSHIP, userId, friendId) == 0) {
+            checkUsersExist(userId, friendId);
+            return false;
+        }
+        jdbcTemplate.update(SQL_DELETE_FRIENDSHIP, friendId, userId);
+        return true;
+    }
+
+    private void checkIndexed(Integer userId, Integer friendId) {
+        for (Integer id : List.of(userId, friendId)) {
+            if (!idIndex.mightContain(id)) {
+                throw new UserNotFoundException("User with ID " + id + " not found");
+            }
+        }
+    }
+
+    private void checkUsersExist(Integer userId, Integer friendId) {
+        List<Integer> existingIds = jdbcTemplate.queryForList(SQL_SELECT_EXISTING_IDS, Integer.class, userId, friendId);
+        for (Integer id : List.of(userId, friendId)) {
+            if (!existingIds.contains(id)) {
+                throw new UserNotFoundException("User with ID " + id + " not found");
+            }
+        }
     }
 
     @Override
@@ -123,4 +337,21 @@ public class DbUserRepository implements UserRepository {
         return getById(id);
     }
 
-}
\ No newline at end of file
+    /**
+     * Ids of all stored users; a miss means the user does not exist.
+     */
+    public IdIndex getIdIndex() {
+        return idIndex;
+    }
+
+    private void loadIds(Integer afterId, IntConsumer consumer) {
+        jdbcTemplate.query(SQL_SELECT_IDS_AFTER, rs -> {
+            consumer.accept(rs.getInt("id"));
+        }, afterId);
+    }
+
+    private Duration getIdIndexCatchUpInterval() {
+        return idIndexProperties.getCatchUpInterval();
+    }
+
+}
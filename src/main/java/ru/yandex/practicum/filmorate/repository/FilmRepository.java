@@ -1,25 +1,69 @@
 package ru.yandex.practicum.filmorate.repository;
 
+import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeChange;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmRepository {
     Optional<Film> create(Film film);
 
+    /**
+     * Creates all films in one transaction.
+     *
+     * @return the created films with generated ids, in input order
+     */
+    List<Film> createAll(List<Film> films);
+
     Optional<Film> update(Film film);
 
     List<Film> findAll();
 
+    List<Film> findPage(Integer afterId, int limit);
+
+    void exportAll(Consumer<Film> consumer);
+
     boolean existsById(Integer id);
 
     Optional<Film> getById(Integer id);
 
+    /**
+     * @return the current version of the film, read without its details
+     */
+    Optional<Integer> findVersion(Integer id);
+
+    List<Film> findAllByIds(Collection<Integer> ids);
+
+    /**
+     * @return {@code false} if the like already exists
+     * @throws FilmNotFoundException if the film does not exist
+     * @throws UserNotFoundException if the user does not exist
+     */
     boolean addLike(Integer filmId, Integer userId);
 
+    /**
+     * @return {@code false} if there was no such like
+     * @throws FilmNotFoundException if the film does not exist
+     * @throws UserNotFoundException if the user does not exist
+     */
     boolean removeLike(Integer filmId, Integer userId);
 
+    /**
+     * Applies queued likes and unlikes in one go. Changes for unknown films or users and changes that
+     * do not alter anything (repeated like, missing like) are skipped.
+     *
+     * @return likes count delta per film
+     */
+    Map<Integer, Integer> applyLikeChanges(Collection<LikeChange> changes);
+
     List<Film> getPopularFilms(int count);
 
+    Map<Integer, Integer> getLikesCounts();
+
 }
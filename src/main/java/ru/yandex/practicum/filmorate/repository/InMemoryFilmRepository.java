@@ -5,10 +5,15 @@ import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.FilmValidationException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeChange;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -16,6 +21,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
@@ -32,19 +38,33 @@ public class InMemoryFilmRepository implements FilmRepository {
             throw new FilmValidationException("New film should not have ID");
         }
         film.setId(idCounter.getAndIncrement());
+        film.setVersion(0);
         films.put(film.getId(), film);
         return Optional.of(film);
     }
 
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        return films.stream()
+                .map(film -> create(film).orElseThrow())
+                .toList();
+    }
+
     @Override
     public Optional<Film> update(Film film) {
         if (film.getId() == null) {
             throw new FilmValidationException("Film ID must be provided for update");
         }
-        if (!existsById(film.getId())) {
-            throw new FilmNotFoundException("The Film with ID=%s not found".formatted(film.getId()));
-        }
-        films.put(film.getId(), film);
+        films.compute(film.getId(), (id, stored) -> {
+            if (stored == null) {
+                throw new FilmNotFoundException("The Film with ID=%s not found".formatted(id));
+            }
+            if (film.getVersion() != null && !film.getVersion().equals(stored.getVersion())) {
+                throw new VersionConflictException("The Film with ID=%s is not at version %s".formatted(id, film.getVersion()));
+            }
+            film.setVersion(stored.getVersion() + 1);
+            return film;
+        });
         return Optional.of(film);
     }
 
@@ -53,6 +73,22 @@ public class InMemoryFilmRepository implements FilmRepository {
         return new ArrayList<>(films.values());
     }
 
+    @Override
+    public List<Film> findPage(Integer afterId, int limit) {
+        return films.values().stream()
+                .filter(film -> afterId == null || film.getId() > afterId)
+                .sorted(Comparator.comparing(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void exportAll(Consumer<Film> consumer) {
+        films.values().stream()
+                .sorted(Comparator.comparing(Film::getId))
+                .forEach(consumer);
+    }
+
     @Override
     public boolean existsById(Integer id) {
         return films.containsKey(id);
@@ -63,8 +99,35 @@ public class InMemoryFilmRepository implements FilmRepository {
         return Optional.ofNullable(films.get(id));
     }
 
+    @Override
+    public Optional<Integer> findVersion(Integer id) {
+        return Optional.ofNullable(films.get(id)).map(Film::getVersion);
+    }
+
+    @Override
+    public List<Film> findAllByIds(Collection<Integer> ids) {
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public boolean addLike(Integer filmId, Integer userId) {
+        checkLikeTargetsExist(filmId, userId);
+
+        return likes.computeIfAbsent(filmId, k -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    @Override
+    public boolean removeLike(Integer filmId, Integer userId) {
+        checkLikeTargetsExist(filmId, userId);
+
+        Set<Integer> filmLikes = likes.get(filmId);
+        return filmLikes != null && filmLikes.remove(userId);
+    }
+
+    private void checkLikeTargetsExist(Integer filmId, Integer userId) {
         if (!films.containsKey(filmId)) {
             throw new FilmNotFoundException("Film with id " + filmId + " not found");
         }
@@ -72,17 +135,24 @@ public class InMemoryFilmRepository implements FilmRepository {
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException("User with id " + userId + " not found");
         }
-
-        likes.computeIfAbsent(filmId, k -> ConcurrentHashMap.newKeySet()).add(userId);
-        return true;
     }
 
     @Override
-    public boolean removeLike(Integer filmId, Integer userId) {
-        if (!likes.containsKey(filmId)) {
-            return false;
+    public Map<Integer, Integer> applyLikeChanges(Collection<LikeChange> changes) {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (LikeChange change : changes) {
+            if (!films.containsKey(change.filmId()) || !userRepository.existsById(change.userId())) {
+                continue;
+            }
+
+            Set<Integer> filmLikes = likes.computeIfAbsent(change.filmId(), k -> ConcurrentHashMap.newKeySet());
+            boolean changed = change.liked() ? filmLikes.add(change.userId()) : filmLikes.remove(change.userId());
+            if (changed) {
+                deltas.merge(change.filmId(), change.liked() ? 1 : -1, Integer::sum);
+            }
         }
-        return likes.get(filmId).remove(userId);
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
     }
 
     public boolean hasLike(Integer filmId, Integer userId) {
@@ -99,4 +169,13 @@ public class InMemoryFilmRepository implements FilmRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Integer, Integer> getLikesCounts() {
+        return films.keySet().stream()
+                .collect(Collectors.toMap(
+                        filmId -> filmId,
+                        filmId -> likes.getOrDefault(filmId, Collections.emptySet()).size()
+                ));
+    }
+
 }
\ No newline at end of file
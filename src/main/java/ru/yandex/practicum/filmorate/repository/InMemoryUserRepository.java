@@ -3,19 +3,24 @@ package ru.yandex.practicum.filmorate.repository;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exception.UserValidationException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
 import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
@@ -30,25 +35,55 @@ public class InMemoryUserRepository implements UserRepository {
         return new ArrayList<>(users.values());
     }
 
+    @Override
+    public List<User> findPage(Integer afterId, int limit) {
+        return users.values().stream()
+                .filter(user -> afterId == null || user.getId() > afterId)
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void exportAll(Consumer<User> consumer) {
+        users.values().stream()
+                .sorted(Comparator.comparing(User::getId))
+                .forEach(consumer);
+    }
+
     @Override
     public Optional<User> create(User user) {
         if (user.getId() != null) {
             throw new UserValidationException("New User should not have ID");
         }
         user.setId(idCounter.getAndIncrement());
+        user.setVersion(0);
         users.put(user.getId(), user);
         return Optional.of(user);
     }
 
+    @Override
+    public List<User> createAll(List<User> users) {
+        return users.stream()
+                .map(user -> create(user).orElseThrow())
+                .toList();
+    }
+
     @Override
     public Optional<User> update(User user) {
         if (user.getId() == null) {
             throw new UserValidationException("User ID must be provided for update");
         }
-        if (!users.containsKey(user.getId())) {
-            throw new UserNotFoundException("The User with %s not found".formatted(user.getId()));
-        }
-        users.put(user.getId(), user);
+        users.compute(user.getId(), (id, stored) -> {
+            if (stored == null) {
+                throw new UserNotFoundException("The User with %s not found".formatted(id));
+            }
+            if (user.getVersion() != null && !user.getVersion().equals(stored.getVersion())) {
+                throw new VersionConflictException("The User with ID=%s is not at version %s".formatted(id, user.getVersion()));
+            }
+            user.setVersion(stored.getVersion() + 1);
+            return user;
+        });
         return Optional.of(user);
     }
 
@@ -57,24 +92,41 @@ public class InMemoryUserRepository implements UserRepository {
         return users.containsKey(id);
     }
 
+    @Override
+    public boolean mightExist(Integer id) {
+        return users.containsKey(id);
+    }
+
     @Override
     public Optional<User> getById(Integer id) {
         return Optional.ofNullable(users.get(id));
     }
 
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public boolean addFriend(Integer userId, Integer friendId) {
+        checkUsersExist(userId, friendId);
+
         Friendship friendship1 = new Friendship(userId, friendId);
         Friendship friendship2 = new Friendship(friendId, userId);
 
-        friendships.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(friendship1);
+        boolean added = friendships.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(friendship1);
         friendships.computeIfAbsent(friendId, k -> ConcurrentHashMap.newKeySet()).add(friendship2);
 
-        return true;
+        return added;
     }
 
     @Override
     public boolean removeFriend(Integer userId, Integer friendId) {
+        checkUsersExist(userId, friendId);
+
         boolean removed1 = Optional.ofNullable(friendships.get(userId))
                 .map(set -> set.removeIf(f -> f.getFriendId().equals(friendId)))
                 .orElse(false);
@@ -85,6 +137,14 @@ public class InMemoryUserRepository implements UserRepository {
         return removed1 || removed2;
     }
 
+    private void checkUsersExist(Integer userId, Integer friendId) {
+        for (Integer id : List.of(userId, friendId)) {
+            if (!users.containsKey(id)) {
+                throw new UserNotFoundException("User with ID " + id + " not found");
+            }
+        }
+    }
+
     public boolean acceptFriendship(Integer userId, Integer friendId) {
         boolean accepted1 = Optional.ofNullable(friendships.get(userId))
                 .flatMap(set -> set.stream()
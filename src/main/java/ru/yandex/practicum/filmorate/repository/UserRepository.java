@@ -1,23 +1,54 @@
 package ru.yandex.practicum.filmorate.repository;
 
+import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserRepository {
     Optional<User> create(User user);
 
+    /**
+     * Creates all users in one transaction.
+     *
+     * @return the created users with generated ids, in input order
+     */
+    List<User> createAll(List<User> users);
+
     Optional<User> update(User user);
 
     List<User> findAll();
 
+    List<User> findPage(Integer afterId, int limit);
+
+    void exportAll(Consumer<User> consumer);
+
     boolean existsById(Integer id);
 
+    /**
+     * Answers from memory without a query: {@code false} means the user certainly does not exist.
+     */
+    boolean mightExist(Integer id);
+
     Optional<User> getById(Integer id);
 
+    List<User> findAllByIds(Collection<Integer> ids);
+
+    /**
+     * @return {@code false} if the friendship already exists
+     * @throws UserNotFoundException if either user does not exist
+     */
     boolean addFriend(Integer userId, Integer friendId);
 
+    /**
+     * Removes the friendship together with the reverse one, if any.
+     *
+     * @return {@code false} if the user had no such friend
+     * @throws UserNotFoundException if either user does not exist
+     */
     boolean removeFriend(Integer userId, Integer friendId);
 
     List<Integer> getFriends(Integer userId);
@@ -17,6 +17,7 @@ public class UserRowMapper implements RowMapper<User> {
                 .login(rs.getString("login"))
                 .name(rs.getString("name"))
                 .birthday(rs.getDate("birthday").toLocalDate())
+                .version(rs.getInt("version"))
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dto.batch.BatchItemResult;
+import ru.yandex.practicum.filmorate.dto.batch.BatchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the items of a batch request. Every item is validated on its own, valid items are written
+ * {@link #CHUNK_SIZE} at a time and every chunk is its own transaction, so an invalid item or a failed
+ * chunk is reported per item instead of failing the whole request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchCreator {
+
+    public static final int MAX_ITEMS = 10_000;
+    static final int CHUNK_SIZE = 500;
+
+    private final Validator validator;
+
+    /**
+     * @param check       reference checks run after bean validation, a thrown exception marks the item as failed
+     * @param chunkWriter writes one chunk in one transaction and returns the created items in the same order
+     */
+    public <T> BatchResult create(List<T> items, Consumer<T> check, UnaryOperator<List<T>> chunkWriter,
+                                  Function<T, Integer> idExtractor) {
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(CHUNK_SIZE);
+
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            Map<String, String> errors = validate(item, check);
+            if (!errors.isEmpty()) {
+                results[i] = BatchItemResult.failed(i, errors);
+                continue;
+            }
+
+            chunk.add(item);
+            chunkIndexes.add(i);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, chunkIndexes, chunkWriter, idExtractor, results);
+            }
+        }
+        writeChunk(chunk, chunkIndexes, chunkWriter, idExtractor, results);
+
+        return BatchResult.of(Arrays.asList(results));
+    }
+
+    private <T> Map<String, String> validate(T item, Consumer<T> check) {
+        if (item == null) {
+            return Map.of("item", "must not be null");
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .collect(Collectors.toMap(
+                            violation -> violation.getPropertyPath().toString(),
+                            ConstraintViolation::getMessage,
+                            (first, second) -> first
+                    ));
+        }
+
+        try {
+            check.accept(item);
+            return Map.of();
+        } catch (RuntimeException e) {
+            return Map.of(e.getClass().getSimpleName(), String.valueOf(e.getMessage()));
+        }
+    }
+
+    private <T> void writeChunk(List<T> chunk, List<Integer> chunkIndexes, UnaryOperator<List<T>> chunkWriter,
+                                Function<T, Integer> idExtractor, BatchItemResult[] results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<T> created = chunkWriter.apply(chunk);
+            for (int i = 0; i < chunkIndexes.size(); i++) {
+                int index = chunkIndexes.get(i);
+                results[index] = BatchItemResult.created(index, idExtractor.apply(created.get(i)));
+            }
+        } catch (RuntimeException e) {
+            // besides database errors the writer rejects references that disappeared after the check
+            log.warn("Batch chunk of {} items rolled back: {}", chunk.size(), e.getMessage());
+
+            Map<String, String> errors = Map.of(e.getClass().getSimpleName(), "Chunk rolled back: " + e.getMessage());
+            for (int index : chunkIndexes) {
+                results[index] = BatchItemResult.failed(index, errors);
+            }
+        }
+
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+}
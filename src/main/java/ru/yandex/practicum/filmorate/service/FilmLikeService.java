@@ -3,50 +3,82 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.ingestion.LikeIngestionPipeline;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.repository.FilmRepository;
 import ru.yandex.practicum.filmorate.repository.UserRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmLikeService {
+    public static final int MAX_POPULAR_COUNT = 1_000;
+
     private final FilmRepository filmRepository;
     private final UserRepository userRepository;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final Optional<LikeIngestionPipeline> likeIngestionPipeline;
 
+    /**
+     * One statement in the common case; film and user existence is only checked when nothing was inserted.
+     * With write-behind ingestion enabled the like is queued instead and repeated likes are not reported.
+     */
     public boolean addLike(Integer filmId, Integer userId) {
-        if (!filmRepository.existsById(filmId)) {
-            throw new FilmNotFoundException("The Film with %s not found to like".formatted(filmId));
-        }
-
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException("The User with %s does not exists to like film".formatted(userId));
+        if (likeIngestionPipeline.isPresent()) {
+            enqueue(filmId, userId, true);
+            return true;
         }
 
         if (!filmRepository.addLike(filmId, userId)) {
             throw new IllegalStateException("User %s already liked the film with ID %s".formatted(userId, filmId));
         }
+        popularFilmsIndex.increment(filmId);
         return true;
     }
 
     public boolean removeLike(Integer filmId, Integer userId) {
-        if (!filmRepository.existsById(filmId)) {
-            throw new FilmNotFoundException("Film with ID %s not found to remove like".formatted(filmId));
+        if (likeIngestionPipeline.isPresent()) {
+            enqueue(filmId, userId, false);
+            return true;
         }
 
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException("User with ID %s not found to remove like".formatted(userId));
+        boolean removed = filmRepository.removeLike(filmId, userId);
+        if (removed) {
+            popularFilmsIndex.decrement(filmId);
         }
+        return removed;
+    }
 
-        return filmRepository.removeLike(filmId, userId);
+    /**
+     * Ids of the most liked films from memory, most liked first; the list also identifies the rendered response.
+     */
+    public List<Integer> getPopularFilmIds(int count) {
+        return popularFilmsIndex.top(count);
     }
 
-    public List<Film> getPopularFilms(int count) {
-        return filmRepository.getPopularFilms(count);
+    /**
+     * Loads the films of {@link #getPopularFilmIds(int)}; concurrent requests for the same ids already share one
+     * load through the response cache.
+     */
+    public List<Film> getPopularFilms(List<Integer> filmIds) {
+        return filmRepository.findAllByIds(filmIds);
+    }
+
+    private void enqueue(Integer filmId, Integer userId, boolean liked) {
+        // a queued change is acknowledged before it is written, so unknown ids are rejected up front from memory
+        if (!popularFilmsIndex.contains(filmId)) {
+            throw new FilmNotFoundException("Film with ID %s not found".formatted(filmId));
+        }
+        if (!userRepository.mightExist(userId)) {
+            throw new UserNotFoundException("User with ID %s not found".formatted(userId));
+        }
+        likeIngestionPipeline.get().submit(filmId, userId, liked);
     }
 
 }
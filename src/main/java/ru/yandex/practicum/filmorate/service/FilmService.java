@@ -3,21 +3,63 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.FilmCache;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.converter.NdjsonWriter;
+import ru.yandex.practicum.filmorate.dto.batch.BatchResult;
+import ru.yandex.practicum.filmorate.dto.page.CursorPage;
 import ru.yandex.practicum.filmorate.exception.FilmCreateFailed;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exception.FilmValidationException;
+import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
+import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.repository.DbGenreRepository;
+import ru.yandex.practicum.filmorate.repository.DbMpaRepository;
 import ru.yandex.practicum.filmorate.repository.FilmRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmService {
+    public static final int MAX_IDS = 1_000;
+
     private final FilmRepository repository;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final FilmCache filmCache;
+    private final ResponseCache responseCache;
+    private final NdjsonWriter ndjsonWriter;
+    private final BatchCreator batchCreator;
+    private final DbMpaRepository mpaRepository;
+    private final DbGenreRepository genreRepository;
 
     public Film getFilmById(Integer id) {
-        return repository.getById(id).orElseThrow(() -> new FilmNotFoundException("Film not found"));
+        return filmCache.get(id, repository::getById)
+                .orElseThrow(() -> new FilmNotFoundException("Film not found"));
+    }
+
+    /**
+     * Like {@link #getFilmById(Integer)}, but a cached film older than the given version, left behind by a write
+     * past this instance, is read again.
+     */
+    public Film getFilmById(Integer id, int minVersion) {
+        Film film = getFilmById(id);
+        if (film.getVersion() < minVersion) {
+            filmCache.invalidate(id);
+            film = getFilmById(id);
+        }
+        return film;
+    }
+
+    public int getVersion(Integer id) {
+        return repository.findVersion(id)
+                .orElseThrow(() -> new FilmNotFoundException("Film not found"));
     }
 
 
@@ -27,6 +69,7 @@ public class FilmService {
         film.setId(null);
         Film createdFilm = repository.create(film)
                 .orElseThrow(() -> new FilmCreateFailed("Film creation failed"));
+        popularFilmsIndex.register(createdFilm.getId());
 
         log.info("Film created successfully. ID : {}", createdFilm.getId());
         log.debug("Film created data: {}", createdFilm);
@@ -34,20 +77,74 @@ public class FilmService {
         return createdFilm;
     }
 
-    public List<Film> getList() {
-        log.debug("Getting films list");
+    public BatchResult createBatch(List<Film> films) {
+        log.info("Creating batch of {} films", films.size());
+
+        if (films.size() > BatchCreator.MAX_ITEMS) {
+            throw new FilmValidationException("Batch must not contain more than %d films".formatted(BatchCreator.MAX_ITEMS));
+        }
+        BatchResult result = batchCreator.create(films, this::checkReferences, this::createChunk, Film::getId);
 
-        return repository.findAll();
+        log.info("Film batch processed. Created: {}, failed: {}", result.created(), result.failed());
+        return result;
     }
 
-    public Film update(Film film) throws FilmNotFoundException {
-        log.info("Updating Film with ID: {}", film.getId());
+    private void checkReferences(Film film) {
+        if (film.getMpa() == null) {
+            throw new FilmValidationException("MPA rating must be provided");
+        }
+        if (mpaRepository.getMpaById(film.getMpa().getId()).isEmpty()) {
+            throw new MpaNotFoundException("MPA rating with id " + film.getMpa().getId() + " not found");
+        }
 
-        if (!repository.existsById(film.getId())) {
-            throw new FilmNotFoundException("The Film with %s not found".formatted(film.getId()));
+        List<Integer> missingGenreIds = film.getGenres().stream()
+                .map(Genre::getId)
+                .filter(genreId -> genreRepository.findById(genreId).isEmpty())
+                .toList();
+        if (!missingGenreIds.isEmpty()) {
+            throw new GenreNotFoundException("Genres not found with ids: " + missingGenreIds);
         }
+    }
+
+    private List<Film> createChunk(List<Film> films) {
+        films.forEach(film -> film.setId(null));
+
+        List<Film> createdFilms = repository.createAll(films);
+        createdFilms.forEach(film -> popularFilmsIndex.register(film.getId()));
+        return createdFilms;
+    }
+
+    /**
+     * @return the found films in the order of the ids; unknown ids are skipped
+     */
+    public List<Film> getByIds(List<Integer> ids) {
+        log.debug("Getting films by {} ids", ids.size());
+
+        if (ids.size() > MAX_IDS) {
+            throw new FilmValidationException("Not more than %d film ids can be requested at once".formatted(MAX_IDS));
+        }
+        return repository.findAllByIds(ids);
+    }
+
+    public CursorPage<Film> getList(Integer afterId, int limit) {
+        log.debug("Getting films page after ID: {}, limit: {}", afterId, limit);
+
+        int pageLimit = CursorPage.normalizeLimit(limit);
+        return CursorPage.of(repository.findPage(afterId, pageLimit + 1), pageLimit, Film::getId);
+    }
+
+    public void export(OutputStream out) throws IOException {
+        log.debug("Exporting films");
+
+        ndjsonWriter.write(out, repository::exportAll);
+    }
+
+    public Film update(Film film) throws FilmNotFoundException {
+        log.info("Updating Film with ID: {}", film.getId());
 
-        Film updatedFilm = repository.update(film).orElseThrow(() -> new FilmCreateFailed("Film update failed"));;
+        Film updatedFilm = repository.update(film).orElseThrow(() -> new FilmCreateFailed("Film update failed"));
+        filmCache.invalidate(updatedFilm.getId());
+        responseCache.invalidate(ResponseCache.POPULAR_FILMS);
 
         log.info("Film updated successfully. ID : {}", updatedFilm.getId());
         log.debug("Film updated data: {}", updatedFilm);
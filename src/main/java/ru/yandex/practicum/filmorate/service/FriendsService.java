@@ -9,8 +9,6 @@ import ru.yandex.practicum.filmorate.repository.UserRepository;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -24,18 +22,9 @@ public class FriendsService {
             throw new IllegalStateException("User cannot add themselves as a friend");
         }
 
-        User user = userRepository.get(userId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
-
-        User friend = userRepository.get(friendId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + friendId + " not found"));
-
-        if (userRepository.areFriends(userId, friendId)) {
+        if (!userRepository.addFriend(userId, friendId)) {
             throw new IllegalStateException("Users are already friends");
         }
-
-        userRepository.addFriend(userId, friendId);
-
         return true;
     }
 
@@ -44,46 +33,39 @@ public class FriendsService {
             throw new IllegalStateException("User cannot delete themselves from friend");
         }
 
-        User user = userRepository.get(userId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
-
-        User friend = userRepository.get(friendId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + friendId + " not found"));
-
-        if (!userRepository.areFriends(user.getId(), friend.getId())) {
-            return true;
-        }
-
         userRepository.removeFriend(userId, friendId);
-        userRepository.removeFriend(friendId, userId);
         return true;
     }
 
     public List<User> getFriends(Integer userId) {
-        User user = userRepository.get(userId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
+        List<Integer> friendIds = userRepository.getFriends(userId);
 
-        return userRepository.getFriends(user.getId()).stream()
-                .map(userRepository::getById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
+        // friendship rows reference existing users, so only an empty list needs the existence check
+        if (friendIds.isEmpty()) {
+            checkUserExists(userId);
+            return Collections.emptyList();
+        }
+        return userRepository.findAllByIds(friendIds);
     }
 
     public List<User> getCommonFriends(Integer userId, Integer otherId) {
         if (userId.equals(otherId)) {
             return Collections.emptyList();
         }
-        User user = userRepository.get(userId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
-        User otherUser = userRepository.get(otherId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + otherId + " not found"));
 
-        return userRepository.getCommonFriends(user.getId(), otherUser.getId()).stream()
-                .map(userRepository::getById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
+        List<Integer> commonIds = userRepository.getCommonFriends(userId, otherId);
+        if (commonIds.isEmpty()) {
+            checkUserExists(userId);
+            checkUserExists(otherId);
+            return Collections.emptyList();
+        }
+        return userRepository.findAllByIds(commonIds);
+    }
+
+    private void checkUserExists(Integer userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User with ID " + userId + " not found");
+        }
     }
 
 }
\ No newline at end of file
@@ -28,4 +28,11 @@ public class GenreService {
 
         return genreRepository.findAll();
     }
+
+    /**
+     * Hash of all genres, served from memory; it changes whenever any of them does.
+     */
+    public int getContentHash() {
+        return genreRepository.getCache().contentHash();
+    }
 }
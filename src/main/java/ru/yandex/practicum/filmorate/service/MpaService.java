@@ -28,4 +28,11 @@ public class MpaService {
 
         return mpaRepository.getAllMpa();
     }
+
+    /**
+     * Hash of all MPA ratings, served from memory; it changes whenever any of them does.
+     */
+    public int getContentHash() {
+        return mpaRepository.getCache().contentHash();
+    }
 }
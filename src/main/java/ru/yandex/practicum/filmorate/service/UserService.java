@@ -3,18 +3,28 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.converter.NdjsonWriter;
+import ru.yandex.practicum.filmorate.dto.batch.BatchResult;
+import ru.yandex.practicum.filmorate.dto.page.CursorPage;
 import ru.yandex.practicum.filmorate.exception.UserCreateFailed;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.UserValidationException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.repository.UserRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    public static final int MAX_IDS = 1_000;
+
     private final UserRepository repository;
+    private final NdjsonWriter ndjsonWriter;
+    private final BatchCreator batchCreator;
 
     public User create(User user) {
         log.debug("Creating user wil Login: {}", user.getLogin());
@@ -28,19 +38,53 @@ public class UserService {
         return createdUser;
     }
 
-    public List<User> getList() {
-        log.debug("Getting users list");
+    public BatchResult createBatch(List<User> users) {
+        log.info("Creating batch of {} users", users.size());
+
+        if (users.size() > BatchCreator.MAX_ITEMS) {
+            throw new UserValidationException("Batch must not contain more than %d users".formatted(BatchCreator.MAX_ITEMS));
+        }
+        BatchResult result = batchCreator.create(users, user -> { }, this::createChunk, User::getId);
+
+        log.info("User batch processed. Created: {}, failed: {}", result.created(), result.failed());
+        return result;
+    }
+
+    private List<User> createChunk(List<User> users) {
+        users.forEach(user -> user.setId(null));
+        return repository.createAll(users);
+    }
+
+    /**
+     * @return the found users in the order of the ids; unknown ids are skipped
+     */
+    public List<User> getByIds(List<Integer> ids) {
+        log.debug("Getting users by {} ids", ids.size());
 
-        return repository.findAll();
+        if (ids.size() > MAX_IDS) {
+            throw new UserValidationException("Not more than %d user ids can be requested at once".formatted(MAX_IDS));
+        }
+        return repository.findAllByIds(ids);
+    }
+
+    public CursorPage<User> getList(Integer afterId, int limit) {
+        log.debug("Getting users page after ID: {}, limit: {}", afterId, limit);
+
+        int pageLimit = CursorPage.normalizeLimit(limit);
+        return CursorPage.of(repository.findPage(afterId, pageLimit + 1), pageLimit, User::getId);
+    }
+
+    public void export(OutputStream out) throws IOException {
+        log.debug("Exporting users");
+
+        ndjsonWriter.write(out, repository::exportAll);
     }
 
     public User update(User user) {
         log.info("Updating user with ID: {}", user.getId());
 
-        if (!repository.existsById(user.getId())) {
-            throw new UserNotFoundException("The User with ID %s does not exists".formatted(user.getId()));
-        }
-        User updatedUser = repository.update(user).orElseThrow(() -> new UserCreateFailed("User update failed"));
+        User updatedUser = repository.update(user).orElseThrow(
+                () -> new UserNotFoundException("The User with ID %s does not exists".formatted(user.getId())));
 
         log.info("User updated successfully. ID : {}", updatedUser.getId());
         log.debug("User updated data: {}", updatedUser);
@@ -1,14 +1,3 @@
---del
-DELETE FROM "film_genre";
-DELETE FROM "film_like";
-DELETE FROM "friendship";
-DELETE FROM "user";
-DELETE FROM "film";
-
--- clear ids
-ALTER TABLE "film" ALTER COLUMN id RESTART WITH 1;
-ALTER TABLE "user" ALTER COLUMN id RESTART WITH 1;
-
 -- genre
 MERGE INTO "genre" (id, name)
 VALUES (1, 'Комедия'),
@@ -0,0 +1,4 @@
+-- the primary keys only lead with user_id / film_id, lookups by the second column scanned the table
+CREATE INDEX IF NOT EXISTS idx_film_like_film_id ON "film_like"(film_id);
+CREATE INDEX IF NOT EXISTS idx_film_genre_genre_id ON "film_genre"(genre_id);
+CREATE INDEX IF NOT EXISTS idx_friendship_friend_id ON "friendship"(friend_id);
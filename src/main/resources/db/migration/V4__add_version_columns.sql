@@ -0,0 +1,3 @@
+-- optimistic locking: every update bumps the version, conditional updates compare it (ETag / If-Match)
+ALTER TABLE "film" ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE "user" ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- likes per film, kept in step by addLike/removeLike; backfilled for films liked before the column existed
+ALTER TABLE "film" ADD COLUMN IF NOT EXISTS likes_count INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_film_likes_count ON "film"(likes_count DESC, id);
+
+UPDATE "film" f SET likes_count = (SELECT COUNT(*) FROM "film_like" fl WHERE fl.film_id = f.id);
@@ -8,10 +8,15 @@ import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.config.IdIndexConfig;
+import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
 import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
+import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.LikeChange;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.repository.DbFilmRepository;
@@ -25,8 +30,11 @@ import ru.yandex.practicum.filmorate.repository.mappers.UserRowMapper;
 
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -37,9 +45,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@JdbcTest
+@JdbcTest(properties = "filmorate.id-index.catch-up-interval=0s")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@Import({DbUserRepository.class, DbFilmRepository.class, DbGenreRepository.class, DbMpaRepository.class, FilmRowMapper.class, UserRowMapper.class, GenreRowMapper.class, MpaRowMapper.class})
+@Import({IdIndexConfig.class, DbUserRepository.class, DbFilmRepository.class, DbGenreRepository.class, DbMpaRepository.class, FilmRowMapper.class, UserRowMapper.class, GenreRowMapper.class, MpaRowMapper.class})
 @Transactional
 class FilmorateApplicationTests {
 
@@ -146,6 +154,31 @@ class FilmorateApplicationTests {
                 );
     }
 
+    @Test
+    void idIndex_ShouldRejectUnknownIdsAndKnowCreatedOnes() {
+        User user = userRepository.create(testUser1).orElseThrow();
+        Film film = filmRepository.create(testFilm1).orElseThrow();
+
+        assertTrue(userRepository.existsById(user.getId()));
+        assertTrue(filmRepository.existsById(film.getId()));
+        assertFalse(userRepository.existsById(Integer.MAX_VALUE));
+        assertThrows(UserNotFoundException.class, () -> filmRepository.addLike(film.getId(), Integer.MAX_VALUE));
+        assertThrows(FilmNotFoundException.class, () -> filmRepository.addLike(Integer.MAX_VALUE, user.getId()));
+    }
+
+    @Test
+    void idIndex_ShouldFindUsersInsertedPastTheRepository() {
+        User user = userRepository.create(testUser1).orElseThrow();
+        assertTrue(userRepository.existsById(user.getId()));
+
+        jdbcTemplate.update("INSERT INTO \"user\" (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                "console@test.com", "console", "Console", LocalDate.of(2000, 1, 1));
+        Integer insertedId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM \"user\"", Integer.class);
+
+        assertTrue(userRepository.existsById(insertedId));
+        assertTrue(userRepository.getById(insertedId).isPresent());
+    }
+
     @Test
     void addFriend_ShouldCreateFriendship() {
         User user1 = userRepository.create(testUser1).orElseThrow();
@@ -166,6 +199,31 @@ class FilmorateApplicationTests {
         assertFalse(userRepository.areFriends(user1.getId(), user2.getId()));
     }
 
+    @Test
+    void addFriend_ShouldReturnFalseForExistingFriendshipAndThrowForMissingUser() {
+        User user1 = userRepository.create(testUser1).orElseThrow();
+        User user2 = userRepository.create(testUser2).orElseThrow();
+
+        userRepository.addFriend(user1.getId(), user2.getId());
+
+        assertFalse(userRepository.addFriend(user1.getId(), user2.getId()));
+        assertThrows(UserNotFoundException.class, () -> userRepository.addFriend(user1.getId(), 999));
+        assertThrows(UserNotFoundException.class, () -> userRepository.removeFriend(999, user1.getId()));
+    }
+
+    @Test
+    void removeFriend_ShouldDeleteReverseFriendship() {
+        User user1 = userRepository.create(testUser1).orElseThrow();
+        User user2 = userRepository.create(testUser2).orElseThrow();
+
+        userRepository.addFriend(user1.getId(), user2.getId());
+        userRepository.addFriend(user2.getId(), user1.getId());
+
+        assertTrue(userRepository.removeFriend(user1.getId(), user2.getId()));
+        assertFalse(userRepository.areFriends(user2.getId(), user1.getId()));
+        assertFalse(userRepository.removeFriend(user2.getId(), user1.getId()));
+    }
+
     @Test
     void getCommonFriends_ShouldReturnMutualFriends() {
         User user1 = userRepository.create(testUser1).orElseThrow();
@@ -183,6 +241,32 @@ class FilmorateApplicationTests {
         assertEquals(commonFriend.getId(), commonFriends.getFirst());
     }
 
+    @Test
+    void findAllByIds_ShouldReturnUsersInRequestedOrder() {
+        User user1 = userRepository.create(testUser1).orElseThrow();
+        User user2 = userRepository.create(testUser2).orElseThrow();
+
+        List<User> users = userRepository.findAllByIds(List.of(user2.getId(), 999, user1.getId()));
+
+        assertEquals(2, users.size());
+        assertEquals(user2.getId(), users.get(0).getId());
+        assertEquals(user1.getId(), users.get(1).getId());
+    }
+
+    @Test
+    void findPage_ShouldSeekUsersAfterId() {
+        User user1 = userRepository.create(testUser1).orElseThrow();
+        User user2 = userRepository.create(testUser2).orElseThrow();
+
+        List<User> firstPage = userRepository.findPage(null, 1);
+        List<User> secondPage = userRepository.findPage(user1.getId(), 10);
+
+        assertEquals(1, firstPage.size());
+        assertEquals(user1.getId(), firstPage.getFirst().getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(user2.getId(), secondPage.getFirst().getId());
+    }
+
     @Test
     void createFilm_ShouldReturnFilmWithId() {
 
@@ -193,6 +277,52 @@ class FilmorateApplicationTests {
         assertEquals(2, createdFilm.getGenres().size());
     }
 
+    @Test
+    void createAllFilms_ShouldAssignIdsInOrderAndSaveGenres() {
+        List<Film> created = filmRepository.createAll(List.of(testFilm1, testFilm2));
+
+        assertEquals(2, created.size());
+        assertTrue(created.get(0).getId() < created.get(1).getId());
+        assertEquals(2, filmRepository.getById(created.get(0).getId()).orElseThrow().getGenres().size());
+        assertEquals(testFilm2.getName(), filmRepository.getById(created.get(1).getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void findAllByIds_ShouldKeepRequestedOrderAcrossChunks() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            users.add(testUser1.toBuilder().email("user" + i + "@test.com").login("user" + i).build());
+        }
+        List<Integer> ids = new ArrayList<>(userRepository.createAll(users).stream().map(User::getId).toList());
+        Collections.reverse(ids);
+        ids.add(1, Integer.MAX_VALUE);
+
+        List<User> found = userRepository.findAllByIds(ids);
+
+        assertEquals(1_200, found.size());
+        assertEquals(ids.getFirst(), found.getFirst().getId());
+        assertEquals(ids.getLast(), found.getLast().getId());
+    }
+
+    @Test
+    void findAllFilmsByIds_ShouldKeepRequestedOrderWithGenres() {
+        Film first = filmRepository.create(testFilm1).orElseThrow();
+        Film second = filmRepository.create(testFilm2).orElseThrow();
+
+        List<Film> found = filmRepository.findAllByIds(List.of(second.getId(), Integer.MAX_VALUE, first.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()), found.stream().map(Film::getId).toList());
+        assertEquals(first.getGenres().size(), found.getLast().getGenres().size());
+    }
+
+    @Test
+    void createAllUsers_ShouldAssignIdsInOrder() {
+        List<User> created = userRepository.createAll(List.of(testUser1, testUser2));
+
+        assertEquals(testUser1.getEmail(), userRepository.getById(created.get(0).getId()).orElseThrow().getEmail());
+        assertEquals(testUser2.getEmail(), userRepository.getById(created.get(1).getId()).orElseThrow().getEmail());
+    }
+
     @Test
     void updateFilm_ShouldModifyExistingFilm() {
         Film original = filmRepository.create(testFilm1).orElseThrow();
@@ -205,6 +335,73 @@ class FilmorateApplicationTests {
         assertEquals(150, updated.getDuration().toMinutes());
     }
 
+    @Test
+    void createFilm_ShouldReturnCanonicalDictionaryNamesWithoutReadBack() {
+        Film film = testFilm2.toBuilder()
+                .mpa(new Mpa(1, null))
+                .genres(new LinkedHashSet<>(List.of(new Genre(2, null), new Genre(1, null))))
+                .build();
+
+        Film created = filmRepository.create(film).orElseThrow();
+        Film stored = filmRepository.getById(created.getId()).orElseThrow();
+
+        assertEquals(stored.getMpa().getName(), created.getMpa().getName());
+        assertEquals(stored.getGenres().stream().map(Genre::getName).toList(),
+                created.getGenres().stream().map(Genre::getName).toList());
+        assertEquals(List.of(1, 2), created.getGenres().stream().map(Genre::getId).toList());
+    }
+
+    @Test
+    void updateFilm_ShouldWriteOnlyChangedGenres() {
+        Film film = filmRepository.create(testFilm1).orElseThrow();
+        long inserted = genreRepository.getInsertedRows();
+        long deleted = genreRepository.getDeletedRows();
+
+        filmRepository.update(film);
+
+        assertEquals(inserted, genreRepository.getInsertedRows());
+        assertEquals(deleted, genreRepository.getDeletedRows());
+
+        film.setGenres(List.of(new Genre(2, null), new Genre(3, null)));
+        filmRepository.update(film);
+
+        assertEquals(inserted + 1, genreRepository.getInsertedRows());
+        assertEquals(deleted + 1, genreRepository.getDeletedRows());
+        assertEquals(List.of(2, 3), filmRepository.getById(film.getId()).orElseThrow().getGenres().stream()
+                .map(Genre::getId)
+                .toList());
+    }
+
+    @Test
+    void updateFilm_ShouldThrowWhenFilmMissing() {
+        Film missing = testFilm1.toBuilder().id(999).build();
+
+        assertThrows(FilmNotFoundException.class, () -> filmRepository.update(missing));
+    }
+
+    @Test
+    void updateFilm_ShouldBumpVersionAndRejectStaleVersion() {
+        Film film = filmRepository.create(testFilm1).orElseThrow();
+        assertEquals(0, film.getVersion());
+
+        Film stale = film.toBuilder().build();
+        assertEquals(1, filmRepository.update(film).orElseThrow().getVersion());
+
+        assertThrows(VersionConflictException.class, () -> filmRepository.update(stale));
+        assertEquals(1, filmRepository.getById(film.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateUser_ShouldRejectStaleVersion() {
+        User user = userRepository.create(testUser1).orElseThrow();
+        User stale = user.toBuilder().name("Stale").build();
+
+        assertEquals(1, userRepository.update(user).orElseThrow().getVersion());
+
+        assertThrows(VersionConflictException.class, () -> userRepository.update(stale));
+        assertEquals(testUser1.getName(), userRepository.getById(user.getId()).orElseThrow().getName());
+    }
+
     @Test
     void getById_ShouldReturnFilmWithDetails() {
         Film testFilm = filmRepository.create(testFilm1).orElseThrow();
@@ -228,6 +425,31 @@ class FilmorateApplicationTests {
         assertTrue(films.stream().anyMatch(f -> f.getName().equals("Test Film 2")));
     }
 
+    @Test
+    void findPage_ShouldSeekFilmsAfterId() {
+        Film film1 = filmRepository.create(testFilm1).orElseThrow();
+        Film film2 = filmRepository.create(testFilm2).orElseThrow();
+
+        List<Film> page = filmRepository.findPage(film1.getId(), 10);
+
+        assertEquals(1, page.size());
+        assertEquals(film2.getId(), page.getFirst().getId());
+        assertTrue(filmRepository.findPage(film2.getId(), 10).isEmpty());
+    }
+
+    @Test
+    void exportAll_ShouldEmitEachFilmOnceWithGenres() {
+        filmRepository.create(testFilm1).orElseThrow();
+        filmRepository.create(testFilm2).orElseThrow();
+
+        List<Film> exported = new ArrayList<>();
+        filmRepository.exportAll(exported::add);
+
+        assertEquals(2, exported.size());
+        assertEquals(2, exported.get(0).getGenres().size());
+        assertTrue(exported.get(1).getGenres().isEmpty());
+    }
+
     @Test
     void getPopularFilms_ShouldReturnOrderedByLikes() {
         Film film1 = filmRepository.create(testFilm1).orElseThrow();
@@ -246,6 +468,22 @@ class FilmorateApplicationTests {
         assertEquals(film1.getId(), popularFilms.getFirst().getId());
     }
 
+    @Test
+    void getPopularFilms_ShouldLimitFilmsNotGenreRows() {
+        Film film1 = filmRepository.create(testFilm1).orElseThrow();
+        Film film2 = filmRepository.create(testFilm2).orElseThrow();
+        User user1 = userRepository.create(testUser1).orElseThrow();
+
+        filmRepository.addLike(film1.getId(), user1.getId());
+
+        List<Film> popularFilms = filmRepository.getPopularFilms(2);
+
+        assertEquals(2, popularFilms.size());
+        assertEquals(film1.getId(), popularFilms.get(0).getId());
+        assertEquals(2, popularFilms.get(0).getGenres().size());
+        assertEquals(film2.getId(), popularFilms.get(1).getId());
+    }
+
     @Test
     void addAndRemoveLike_ShouldWorkCorrectly() {
         Film film = filmRepository.create(testFilm1).orElseThrow();
@@ -259,6 +497,64 @@ class FilmorateApplicationTests {
         assertFalse(filmRepository.removeLike(film.getId(), user1.getId())); // Уже удален
     }
 
+    @Test
+    void addAndRemoveLike_ShouldThrowForMissingFilmOrUser() {
+        Film film = filmRepository.create(testFilm1).orElseThrow();
+        User user1 = userRepository.create(testUser1).orElseThrow();
+
+        assertThrows(UserNotFoundException.class, () -> filmRepository.addLike(film.getId(), 999));
+        assertThrows(FilmNotFoundException.class, () -> filmRepository.addLike(999, user1.getId()));
+        assertThrows(FilmNotFoundException.class, () -> filmRepository.removeLike(999, user1.getId()));
+        assertEquals(0, filmRepository.getLikesCounts().get(film.getId()));
+    }
+
+    @Test
+    void addAndRemoveLike_ShouldMaintainLikesCount() {
+        Film film = filmRepository.create(testFilm1).orElseThrow();
+        User user1 = userRepository.create(testUser1).orElseThrow();
+        User user2 = userRepository.create(testUser2).orElseThrow();
+
+        filmRepository.addLike(film.getId(), user1.getId());
+        filmRepository.addLike(film.getId(), user2.getId());
+        filmRepository.addLike(film.getId(), user2.getId()); // Дубликат
+        filmRepository.removeLike(film.getId(), user1.getId());
+
+        assertEquals(1, filmRepository.getLikesCounts().get(film.getId()));
+    }
+
+    @Test
+    void applyLikeChanges_ShouldWriteBatchAndReturnDeltas() {
+        Film film1 = filmRepository.create(testFilm1).orElseThrow();
+        Film film2 = filmRepository.create(testFilm2).orElseThrow();
+        User user1 = userRepository.create(testUser1).orElseThrow();
+        User user2 = userRepository.create(testUser2).orElseThrow();
+        filmRepository.addLike(film2.getId(), user1.getId());
+
+        Map<Integer, Integer> deltas = filmRepository.applyLikeChanges(List.of(
+                new LikeChange(film1.getId(), user1.getId(), true),
+                new LikeChange(film1.getId(), user2.getId(), true),
+                new LikeChange(film1.getId(), 999, true),
+                new LikeChange(film2.getId(), user1.getId(), false),
+                new LikeChange(film2.getId(), user2.getId(), false)
+        ));
+
+        assertEquals(Map.of(film1.getId(), 2, film2.getId(), -1), deltas);
+        assertEquals(Map.of(film1.getId(), 2, film2.getId(), 0), filmRepository.getLikesCounts());
+    }
+
+    @Test
+    void findAllByIds_ShouldKeepRequestedOrder() {
+        Film film1 = filmRepository.create(testFilm1).orElseThrow();
+        Film film2 = filmRepository.create(testFilm2).orElseThrow();
+
+        List<Film> films = filmRepository.findAllByIds(List.of(film2.getId(), 999, film1.getId()));
+
+        assertEquals(2, films.size());
+        assertEquals(film2.getId(), films.get(0).getId());
+        assertEquals(film1.getId(), films.get(1).getId());
+        assertEquals(2, films.get(1).getGenres().size());
+    }
+
    @Test
     void validateMpa_ShouldThrowWhenInvalid() {
         testFilm1.setMpa(new Mpa(999, "Invalid"));
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DictionaryCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private DictionaryCache<Genre> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DictionaryCache<>("genre", () -> {
+            loads.incrementAndGet();
+            return List.of(new Genre(1, "Комедия"), new Genre(2, "Драма"));
+        }, Genre::getId);
+    }
+
+    @Test
+    void get_shouldLoadOnceAndServeFromMemory() {
+        assertEquals("Драма", cache.get(2).orElseThrow().getName());
+        assertTrue(cache.get(999).isEmpty());
+        assertEquals(2, cache.values().size());
+
+        assertAll("One load, then hits",
+                () -> assertEquals(1, loads.get()),
+                () -> assertEquals(1, cache.getMisses()),
+                () -> assertEquals(2, cache.getHits())
+        );
+    }
+
+    @Test
+    void existingIds_shouldReturnOnlyKnownIds() {
+        assertEquals(Set.of(1), cache.existingIds(List.of(1, 999)));
+    }
+
+    @Test
+    void invalidate_shouldReloadOnNextLookup() {
+        cache.load();
+        cache.invalidate();
+
+        cache.get(1);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void contentHash_shouldChangeWithContent() {
+        DictionaryCache<Genre> renamed = new DictionaryCache<>("genre",
+                () -> List.of(new Genre(1, "Комедия"), new Genre(2, "Триллер")), Genre::getId);
+
+        assertEquals(cache.contentHash(), cache.contentHash());
+        assertNotEquals(cache.contentHash(), renamed.contentHash());
+    }
+}
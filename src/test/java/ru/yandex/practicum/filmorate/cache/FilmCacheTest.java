@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.FilmCacheProperties;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilmCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final FilmCache cache = new FilmCache(new FilmCacheProperties());
+    private final Function<Integer, Optional<Film>> loader = id -> {
+        loads.incrementAndGet();
+        return id > 100 ? Optional.empty() : Optional.of(Film.builder().id(id).name("Film " + id).build());
+    };
+
+    @Test
+    void get_shouldLoadOnceAndServeCachedFilm() {
+        Film first = cache.get(1, loader).orElseThrow();
+        Film second = cache.get(1, loader).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getCache().stats().hitCount());
+    }
+
+    @Test
+    void get_shouldNotCacheMissingFilms() {
+        assertTrue(cache.get(999, loader).isEmpty());
+        assertTrue(cache.get(999, loader).isEmpty());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_shouldReloadOnNextGet() {
+        cache.get(1, loader);
+        cache.invalidate(1);
+        cache.get(1, loader);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdIndexTest {
+    private final List<Integer> stored = new ArrayList<>(List.of(1, 2, 64, 1000));
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final IdIndex index = new IdIndex("film", (afterId, consumer) -> {
+        loads.incrementAndGet();
+        stored.stream()
+                .filter(id -> id > afterId)
+                .forEach(consumer::accept);
+    }, () -> Duration.ofSeconds(1), nanoTime::get);
+
+    @Test
+    void mightContain_shouldAnswerFromLoadedIds() {
+        assertTrue(index.mightContain(64));
+        assertTrue(index.mightContain(1000));
+        assertFalse(index.mightContain(3));
+        assertFalse(index.mightContain(1_000_000));
+        assertFalse(index.mightContain(-1));
+        assertFalse(index.mightContain(null));
+
+        assertEquals(4, index.getRejected());
+    }
+
+    @Test
+    void add_shouldGrowBitmapForNewIds() {
+        index.add(5000);
+
+        assertTrue(index.mightContain(5000));
+        assertTrue(index.mightContain(1));
+    }
+
+    @Test
+    void mightContain_shouldLoadIdsStoredPastTheIndexAboveHighestLoadedId() {
+        assertFalse(index.mightContain(1001));
+
+        stored.add(1001);
+        nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertTrue(index.mightContain(1001));
+        assertFalse(index.mightContain(999));
+    }
+
+    @Test
+    void mightContain_shouldRejectRepeatedUnknownHighIdsWithoutLoading() {
+        assertFalse(index.mightContain(1001));
+        int loadsAfterCatchUp = loads.get();
+
+        for (int i = 0; i < 100; i++) {
+            nanoTime.addAndGet(Duration.ofMillis(5).toNanos());
+            assertFalse(index.mightContain(1001 + i));
+        }
+
+        assertEquals(loadsAfterCatchUp, loads.get());
+        assertEquals(101, index.getRejected());
+    }
+
+    @Test
+    void add_shouldRaiseHighestKnownId() {
+        index.add(1003);
+        stored.add(1002);
+
+        assertTrue(index.mightContain(1003));
+        assertFalse(index.mightContain(1002));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void load_shouldKeepIdsAddedBefore() {
+        index.add(7);
+        stored.add(8);
+
+        index.load();
+
+        assertTrue(index.mightContain(7));
+        assertTrue(index.mightContain(8));
+    }
+}
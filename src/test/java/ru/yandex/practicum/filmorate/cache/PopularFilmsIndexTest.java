@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryUserRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopularFilmsIndexTest {
+    private InMemoryFilmRepository filmRepository;
+    private InMemoryUserRepository userRepository;
+    private PopularFilmsIndex index;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+        filmRepository = new InMemoryFilmRepository(userRepository);
+        index = new PopularFilmsIndex(filmRepository);
+
+        for (int i = 1; i <= 3; i++) {
+            filmRepository.create(new Film(null, "Film " + i, "Description " + i,
+                    LocalDate.of(2010 + i, 1, 1), Duration.ofMinutes(100 + i)));
+            userRepository.create(new User(null, "User " + i, "user" + i, "user" + i + "@example.com",
+                    LocalDate.of(1990 + i, 1, 1)));
+        }
+    }
+
+    @Test
+    void reload_shouldRankFilmsByStoredLikes() {
+        filmRepository.addLike(3, 1);
+        filmRepository.addLike(3, 2);
+        filmRepository.addLike(2, 1);
+
+        index.reload();
+
+        assertEquals(List.of(3, 2, 1), index.top(10));
+    }
+
+    @Test
+    void top_shouldBreakTiesByFilmId() {
+        index.reload();
+
+        assertEquals(List.of(1, 2), index.top(2));
+    }
+
+    @Test
+    void incrementAndDecrement_shouldMoveFilmInRanking() {
+        index.reload();
+
+        index.increment(3);
+        index.increment(3);
+        index.increment(2);
+
+        assertEquals(List.of(3, 2, 1), index.top(3));
+
+        index.decrement(3);
+        index.decrement(3);
+
+        assertEquals(List.of(2, 1, 3), index.top(3));
+    }
+
+    @Test
+    void decrement_shouldNotGoBelowZero() {
+        index.reload();
+
+        index.decrement(1);
+        index.increment(2);
+
+        assertEquals(List.of(2, 1, 3), index.top(3));
+    }
+
+    @Test
+    void register_shouldAddFilmWithoutLikes() {
+        index.reload();
+
+        index.register(42);
+        index.increment(1);
+
+        assertEquals(List.of(1, 2, 3, 42), index.top(10));
+    }
+
+    @Test
+    void top_shouldReturnEmptyListForNonPositiveCount() {
+        index.reload();
+
+        assertTrue(index.top(0).isEmpty());
+    }
+
+    @Test
+    void top_shouldReturnAllFilmsForCountAboveIndexSize() {
+        index.reload();
+
+        assertEquals(List.of(1, 2, 3), index.top(Integer.MAX_VALUE));
+    }
+}
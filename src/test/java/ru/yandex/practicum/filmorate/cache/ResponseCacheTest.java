@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+    private final ResponseCache cache = new ResponseCache(new ObjectMapper());
+    private final AtomicInteger renders = new AtomicInteger();
+    private final Supplier<List<Genre>> genres = () -> {
+        renders.incrementAndGet();
+        return List.of(new Genre(1, "Комедия"));
+    };
+
+    @Test
+    void get_shouldRenderOnceAsUtf8Json() {
+        byte[] first = cache.get(ResponseCache.GENRES, "hash=1", genres);
+        byte[] second = cache.get(ResponseCache.GENRES, "hash=1", genres);
+
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+        assertEquals("[{\"id\":1,\"name\":\"Комедия\"}]", new String(first, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_shouldRenderAgainForOtherParams() {
+        cache.get(ResponseCache.GENRES, "hash=1", genres);
+        cache.get(ResponseCache.GENRES, "hash=2", genres);
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void invalidate_shouldRenderGroupAgain() {
+        cache.get(ResponseCache.GENRES, "hash=1", genres);
+        cache.get(ResponseCache.MPA, "hash=1", genres);
+
+        cache.invalidate(ResponseCache.GENRES);
+        cache.get(ResponseCache.GENRES, "hash=1", genres);
+        cache.get(ResponseCache.MPA, "hash=1", genres);
+
+        assertEquals(3, renders.get());
+    }
+
+    @Test
+    void get_shouldBoundCacheByBodyBytes() {
+        byte[] body = cache.get(ResponseCache.GENRES, "hash=1", genres);
+        cache.getCache().cleanUp();
+
+        Policy.Eviction<String, byte[]> eviction = cache.getCache().policy().eviction().orElseThrow();
+        assertTrue(eviction.isWeighted());
+        assertEquals(ResponseCache.MAXIMUM_WEIGHT, eviction.getMaximum());
+        assertTrue(eviction.weightedSize().orElseThrow() >= body.length);
+    }
+}
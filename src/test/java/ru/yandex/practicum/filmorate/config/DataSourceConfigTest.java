@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DataSourceConfigTest {
+    private final DataSourceTuningProperties.H2 h2 = new DataSourceTuningProperties.H2();
+
+    @Test
+    void withH2Settings_shouldAppendEngineSettingsToFileUrl() {
+        assertEquals("jdbc:h2:file:./db/filmorate;CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;LOCK_TIMEOUT=10000"
+                        + ";WRITE_DELAY=500;RETENTION_TIME=45000;AUTO_COMPACT_FILL_RATE=90",
+                DataSourceConfig.withH2Settings("jdbc:h2:file:./db/filmorate", h2));
+    }
+
+    @Test
+    void withH2Settings_shouldSkipMvStoreSettingsForMemoryUrl() {
+        assertEquals("jdbc:h2:mem:testdb;CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;LOCK_TIMEOUT=10000",
+                DataSourceConfig.withH2Settings("jdbc:h2:mem:testdb", h2));
+    }
+
+    @Test
+    void withH2Settings_shouldKeepSettingsGivenInUrl() {
+        h2.setQueryCacheSize(16);
+
+        assertEquals("jdbc:h2:mem:testdb;cache_size=1024;CACHE_SIZE_X=1;QUERY_CACHE_SIZE=16;LOCK_TIMEOUT=10000",
+                DataSourceConfig.withH2Settings("jdbc:h2:mem:testdb;cache_size=1024;CACHE_SIZE_X=1", h2));
+    }
+
+    @Test
+    void withH2Settings_shouldLeaveOtherDatabasesAlone() {
+        assertEquals("jdbc:postgresql://localhost/filmorate",
+                DataSourceConfig.withH2Settings("jdbc:postgresql://localhost/filmorate", h2));
+    }
+}
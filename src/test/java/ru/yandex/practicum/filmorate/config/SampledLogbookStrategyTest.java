@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+
+import java.io.IOException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SampledLogbookStrategyTest {
+    private final Correlation correlation = mock(Correlation.class);
+    private final HttpRequest request = mock(HttpRequest.class);
+    private final HttpResponse response = mock(HttpResponse.class);
+    private final Sink sink = mock(Sink.class);
+
+    @Test
+    void write_shouldAlwaysLogErrorResponses() throws IOException {
+        when(response.getStatus()).thenReturn(404);
+
+        new SampledLogbookStrategy(0.0, 400).write(correlation, request, response, sink);
+
+        verify(sink).writeBoth(correlation, request, response);
+    }
+
+    @Test
+    void write_shouldSkipSuccessfulResponsesOutsideSample() throws IOException {
+        when(response.getStatus()).thenReturn(200);
+
+        SampledLogbookStrategy strategy = new SampledLogbookStrategy(0.0, 400);
+        strategy.write(mock(Precorrelation.class), request, sink);
+        strategy.write(correlation, request, response, sink);
+
+        verify(sink, never()).write(any(Precorrelation.class), any());
+        verify(sink, never()).writeBoth(any(), any(), any());
+    }
+
+    @Test
+    void write_shouldLogSampledSuccessfulResponses() throws IOException {
+        when(response.getStatus()).thenReturn(200);
+
+        new SampledLogbookStrategy(1.0, 400).write(correlation, request, response, sink);
+
+        verify(sink).writeBoth(correlation, request, response);
+    }
+
+    @Test
+    void process_shouldNotBufferBodiesOutsideSample() throws IOException {
+        when(request.withoutBody()).thenReturn(request);
+        when(response.withoutBody()).thenReturn(response);
+        when(response.getStatus()).thenReturn(200);
+
+        SampledLogbookStrategy strategy = new SampledLogbookStrategy(0.0, 400);
+        strategy.write(correlation, strategy.process(request), strategy.process(request, response), sink);
+
+        verify(request, never()).withBody();
+        verify(response, never()).withBody();
+        verify(sink, never()).writeBoth(any(), any(), any());
+    }
+
+    @Test
+    void process_shouldBufferBodiesOfSampledExchanges() throws IOException {
+        when(request.withBody()).thenReturn(request);
+        when(response.withBody()).thenReturn(response);
+        when(response.getStatus()).thenReturn(200);
+
+        SampledLogbookStrategy strategy = new SampledLogbookStrategy(1.0, 400);
+        strategy.write(correlation, strategy.process(request), strategy.process(request, response), sink);
+
+        verify(request, never()).withoutBody();
+        verify(response, never()).withoutBody();
+        verify(sink).writeBoth(correlation, request, response);
+    }
+
+    @Test
+    void write_shouldLogErrorResponsesOutsideSampleWithoutBodies() throws IOException {
+        when(request.withoutBody()).thenReturn(request);
+        when(response.withoutBody()).thenReturn(response);
+        when(response.getStatus()).thenReturn(500);
+
+        SampledLogbookStrategy strategy = new SampledLogbookStrategy(0.0, 400);
+        strategy.write(correlation, strategy.process(request), strategy.process(request, response), sink);
+
+        verify(response, never()).withBody();
+        verify(sink).writeBoth(correlation, request, response);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ETagsTest {
+
+    @Test
+    void parseIfMatch_shouldReadVersionTag() {
+        assertEquals(7, ETags.parseIfMatch(ETags.of(7)));
+        assertEquals(7, ETags.parseIfMatch(" \"7\" "));
+    }
+
+    @Test
+    void parseIfMatch_shouldReturnNullWithoutCondition() {
+        assertNull(ETags.parseIfMatch(null));
+        assertNull(ETags.parseIfMatch(""));
+        assertNull(ETags.parseIfMatch("*"));
+    }
+
+    @Test
+    void parseIfMatch_shouldRejectTagsMatchingNoVersion() {
+        assertThrows(VersionConflictException.class, () -> ETags.parseIfMatch("W/\"7\""));
+        assertThrows(VersionConflictException.class, () -> ETags.parseIfMatch("\"abc\""));
+        assertThrows(VersionConflictException.class, () -> ETags.parseIfMatch("\"1\", \"2\""));
+    }
+}
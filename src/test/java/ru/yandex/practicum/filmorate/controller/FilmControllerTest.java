@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.yandex.practicum.filmorate.cache.FilmCache;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.config.FilmCacheProperties;
+import ru.yandex.practicum.filmorate.converter.NdjsonWriter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.repository.DbGenreRepository;
+import ru.yandex.practicum.filmorate.repository.DbMpaRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryUserRepository;
+import ru.yandex.practicum.filmorate.service.BatchCreator;
+import ru.yandex.practicum.filmorate.service.FilmLikeService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class FilmControllerTest {
+    private InMemoryFilmRepository filmRepository;
+    private FilmController controller;
+    private Film film;
+
+    @BeforeEach
+    void setUp() {
+        filmRepository = new InMemoryFilmRepository(new InMemoryUserRepository());
+        FilmService filmService = new FilmService(filmRepository, mock(PopularFilmsIndex.class),
+                new FilmCache(new FilmCacheProperties()), mock(ResponseCache.class), mock(NdjsonWriter.class),
+                mock(BatchCreator.class), mock(DbMpaRepository.class), mock(DbGenreRepository.class));
+        controller = new FilmController(filmService, mock(FilmLikeService.class), mock(ResponseCache.class));
+        film = filmRepository.create(Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(Duration.ofMinutes(120))
+                .build()).orElseThrow();
+    }
+
+    @Test
+    void getFilmById_shouldAnswerCurrentVersionWithNotModified() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<Film> result = controller.getFilmById(film.getId(), request(ETags.of(0), response));
+
+        assertNull(result);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    }
+
+    @Test
+    void getFilmById_shouldReturnFilmChangedPastTheService() {
+        controller.getFilmById(film.getId(), request(null, new MockHttpServletResponse()));
+        filmRepository.update(film.toBuilder().name("Changed").build());
+
+        ResponseEntity<Film> result = controller.getFilmById(film.getId(),
+                request(ETags.of(0), new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(ETags.of(1), result.getHeaders().getETag());
+        assertEquals("Changed", result.getBody().getName());
+    }
+
+    private ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films/" + film.getId());
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.config.DatasetProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Producers write from their own connections, so the test runs without the usual rollback transaction.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatasetGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatasetProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        clean();
+
+        properties = new DatasetProperties();
+        properties.setUsers(400);
+        properties.setFilms(200);
+        properties.setLikesPerUser(10);
+        properties.setFriendsPerUser(6);
+        properties.setFriendClusterSize(50);
+        properties.setThreads(4);
+        properties.setBatchSize(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clean();
+    }
+
+    @Test
+    void generate_shouldFillAllTablesAndKeepLikesCountInStep() {
+        GeneratedDataset dataset = new DatasetGenerator(jdbcTemplate, properties).generate();
+
+        assertAll("Stored rows match the report",
+                () -> assertEquals(400, count("SELECT COUNT(*) FROM \"user\"")),
+                () -> assertEquals(200, count("SELECT COUNT(*) FROM \"film\"")),
+                () -> assertEquals(dataset.filmGenres(), count("SELECT COUNT(*) FROM \"film_genre\"")),
+                () -> assertEquals(dataset.likes(), count("SELECT COUNT(*) FROM \"film_like\"")),
+                () -> assertEquals(dataset.friendships(), count("SELECT COUNT(*) FROM \"friendship\"")),
+                () -> assertEquals(dataset.likes(), count("SELECT SUM(likes_count) FROM \"film\""))
+        );
+    }
+
+    @Test
+    void generate_shouldSkewLikesAndClusterFriendships() {
+        GeneratedDataset dataset = new DatasetGenerator(jdbcTemplate, properties).generate();
+
+        long topTenthLikes = count("SELECT COUNT(*) FROM \"film_like\" WHERE film_id < " + (dataset.firstFilmId() + 20));
+        long clusteredFriendships = count("""
+                SELECT COUNT(*) FROM "friendship"
+                WHERE (user_id - %d) / 50 = (friend_id - %d) / 50
+                """.formatted(dataset.firstUserId(), dataset.firstUserId()));
+
+        assertTrue(topTenthLikes * 10 > dataset.likes() * 3, "a tenth of the films should hold several times its share");
+        assertTrue(clusteredFriendships * 2 > dataset.friendships(), "most friends should share a cluster");
+    }
+
+    @Test
+    void generate_shouldProduceSameRowsForSameSeedWhateverTheThreads() {
+        GeneratedDataset first = new DatasetGenerator(jdbcTemplate, properties).generate();
+        List<String> firstLikes = relativeLikes(first);
+        clean();
+
+        properties.setThreads(1);
+        GeneratedDataset second = new DatasetGenerator(jdbcTemplate, properties).generate();
+
+        assertEquals(firstLikes, relativeLikes(second));
+    }
+
+    private List<String> relativeLikes(GeneratedDataset dataset) {
+        return jdbcTemplate.queryForList("""
+                SELECT (film_id - %d) || ':' || (user_id - %d) AS pair
+                FROM "film_like"
+                ORDER BY film_id, user_id
+                """.formatted(dataset.firstFilmId(), dataset.firstUserId()), String.class);
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private void clean() {
+        jdbcTemplate.execute("DELETE FROM \"film_genre\"");
+        jdbcTemplate.execute("DELETE FROM \"film_like\"");
+        jdbcTemplate.execute("DELETE FROM \"friendship\"");
+        jdbcTemplate.execute("DELETE FROM \"film\"");
+        jdbcTemplate.execute("DELETE FROM \"user\"");
+    }
+}
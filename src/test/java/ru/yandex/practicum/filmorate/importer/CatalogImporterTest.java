@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.importer;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.config.CatalogImportProperties;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.repository.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryUserRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogImporterTest {
+    private static final String HEADER = "name,description,release_date,duration,mpa,genres";
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryFilmRepository filmRepository;
+    private CatalogImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        filmRepository = new InMemoryFilmRepository(new InMemoryUserRepository());
+
+        CatalogImportProperties properties = new CatalogImportProperties();
+        properties.setBatchSize(2);
+
+        importer = new CatalogImporter(filmRepository, Validation.buildDefaultValidatorFactory().getValidator(),
+                List.of(new Mpa(1, "G"), new Mpa(3, "PG-13")),
+                List.of(new Genre(1, "Комедия"), new Genre(2, "Драма")),
+                properties);
+    }
+
+    @Test
+    void importFile_shouldImportValidRowsAndSkipInvalidOnes() throws IOException {
+        Path file = write(
+                "Film 1,\"Quoted, with \"\"comma\"\"\",2001-01-01,120,pg-13,Комедия|Драма",
+                "Film 2,Unknown rating,2002-02-02,90,XXX,",
+                "Film 3,Too old,1800-01-01,90,G,",
+                "Film 4,Bad duration,2003-03-03,long,G,",
+                "Film 5,Missing columns",
+                "Film 6,No genres,2004-04-04,95,G,"
+        );
+
+        ImportReport report = importer.importFile(file, 0);
+
+        List<Film> films = filmRepository.findAll();
+        assertAll("Only valid rows are stored",
+                () -> assertEquals(new ImportReport(6, 2, 4, 6), report),
+                () -> assertEquals(List.of("Film 1", "Film 6"), films.stream().map(Film::getName).toList()),
+                () -> assertEquals("Quoted, with \"comma\"", films.getFirst().getDescription()),
+                () -> assertEquals(3, films.getFirst().getMpa().getId()),
+                () -> assertEquals(List.of(1, 2), films.getFirst().getGenres().stream().map(Genre::getId).toList())
+        );
+    }
+
+    @Test
+    void importFile_shouldRestartAfterSkippedRows() throws IOException {
+        Path file = write(
+                "Film 1,First,2001-01-01,120,G,",
+                "Film 2,Second,2002-02-02,90,G,",
+                "Film 3,Third,2003-03-03,90,G,"
+        );
+
+        ImportReport report = importer.importFile(file, 2);
+
+        assertEquals(new ImportReport(1, 1, 0, 3), report);
+        assertEquals(List.of("Film 3"), filmRepository.findAll().stream().map(Film::getName).toList());
+    }
+
+    private Path write(String... rows) throws IOException {
+        Path file = tempDir.resolve("catalog.csv");
+        Files.writeString(file, HEADER + "\n" + String.join("\n", rows) + "\n");
+        return file;
+    }
+}
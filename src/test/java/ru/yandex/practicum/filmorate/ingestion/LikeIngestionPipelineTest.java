@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.ingestion;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.config.LikeIngestionProperties;
+import ru.yandex.practicum.filmorate.exception.LikeIngestionOverloadedException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeChange;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryUserRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LikeIngestionPipelineTest {
+    private InMemoryFilmRepository filmRepository;
+    private PopularFilmsIndex popularFilmsIndex;
+    private LikeIngestionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        filmRepository = new InMemoryFilmRepository(userRepository);
+        popularFilmsIndex = new PopularFilmsIndex(filmRepository);
+        properties = new LikeIngestionProperties();
+        properties.setOfferTimeout(Duration.ofMillis(1));
+
+        for (int i = 1; i <= 2; i++) {
+            filmRepository.create(new Film(null, "Film " + i, "Description " + i,
+                    LocalDate.of(2010 + i, 1, 1), Duration.ofMinutes(100 + i)));
+            userRepository.create(new User(null, "User " + i, "user" + i, "user" + i + "@example.com",
+                    LocalDate.of(1990 + i, 1, 1)));
+        }
+        popularFilmsIndex.reload();
+    }
+
+    @Test
+    void flush_shouldWriteOnlyLatestChangePerFilmAndUser() {
+        LikeIngestionPipeline pipeline = pipeline();
+
+        pipeline.submit(2, 1, true);
+        pipeline.submit(2, 1, false);
+        pipeline.submit(2, 2, true);
+        pipeline.submit(1, 1, true);
+        pipeline.submit(1, 1, true);
+
+        assertEquals(3, pipeline.getQueueDepth());
+
+        pipeline.flush();
+
+        assertAll("Coalesced changes written",
+                () -> assertEquals(0, pipeline.getQueueDepth()),
+                () -> assertFalse(filmRepository.hasLike(2, 1)),
+                () -> assertTrue(filmRepository.hasLike(2, 2)),
+                () -> assertTrue(filmRepository.hasLike(1, 1)),
+                () -> assertEquals(List.of(1, 2), popularFilmsIndex.top(2))
+        );
+    }
+
+    @Test
+    void flush_shouldSkipUnknownUsersAndKeepIndexInStep() {
+        LikeIngestionPipeline pipeline = pipeline();
+
+        pipeline.submit(2, 1, true);
+        pipeline.submit(2, 999, true);
+        pipeline.flush();
+
+        assertEquals(1, filmRepository.getLikesCounts().get(2));
+        assertEquals(List.of(2, 1), popularFilmsIndex.top(2));
+    }
+
+    @Test
+    void submit_shouldRejectNewPairsWhenQueueIsFull() {
+        properties.setQueueCapacity(1);
+        LikeIngestionPipeline pipeline = pipeline();
+
+        pipeline.submit(1, 1, true);
+
+        assertThrows(LikeIngestionOverloadedException.class, () -> pipeline.submit(1, 2, true));
+
+        // a change for an already queued pair needs no new slot
+        pipeline.submit(1, 1, false);
+        pipeline.flush();
+        pipeline.submit(1, 2, true);
+
+        assertEquals(1, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void flush_shouldRetryFailedBatchChangeByChangeAndCountDropped() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryFilmRepository failingRepository = new InMemoryFilmRepository(new InMemoryUserRepository()) {
+            @Override
+            public Map<Integer, Integer> applyLikeChanges(Collection<LikeChange> changes) {
+                if (changes.stream().anyMatch(change -> change.userId() == 2)) {
+                    throw new IllegalStateException("write failed");
+                }
+                return filmRepository.applyLikeChanges(changes);
+            }
+        };
+        LikeIngestionPipeline pipeline = new LikeIngestionPipeline(failingRepository, popularFilmsIndex, properties,
+                meterRegistry);
+
+        pipeline.submit(1, 1, true);
+        pipeline.submit(1, 2, true);
+        pipeline.flush();
+
+        assertAll("Only the failing change dropped",
+                () -> assertTrue(filmRepository.hasLike(1, 1)),
+                () -> assertFalse(filmRepository.hasLike(1, 2)),
+                () -> assertEquals(1.0, changes(meterRegistry, "written")),
+                () -> assertEquals(2.0, changes(meterRegistry, "failed")),
+                () -> assertEquals(1.0, changes(meterRegistry, "dropped"))
+        );
+    }
+
+    private static double changes(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("filmorate.likes.ingestion.changes").tag("result", result).counter().count();
+    }
+
+    private LikeIngestionPipeline pipeline() {
+        return new LikeIngestionPipeline(filmRepository, popularFilmsIndex, properties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryFilmRepository;
+import ru.yandex.practicum.filmorate.repository.InMemoryUserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TimedOperationsAspectTest {
+    private SimpleMeterRegistry meterRegistry;
+    private FilmRepository filmRepository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+                new InMemoryFilmRepository(new InMemoryUserRepository()));
+        proxyFactory.addAspect(new TimedOperationsAspect(meterRegistry));
+        filmRepository = proxyFactory.getProxy();
+    }
+
+    @Test
+    void repositoryCall_shouldBeTimedWithSuccessOutcome() {
+        filmRepository.findAll();
+        filmRepository.findAll();
+
+        Timer timer = meterRegistry.find(TimedOperationsAspect.REPOSITORY_TIMER)
+                .tags("class", "InMemoryFilmRepository", "operation", "findAll", "outcome", "success")
+                .timer();
+
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    void failedRepositoryCall_shouldBeTimedWithErrorOutcome() {
+        assertThrows(FilmNotFoundException.class, () -> filmRepository.addLike(999, 1));
+
+        Timer timer = meterRegistry.find(TimedOperationsAspect.REPOSITORY_TIMER)
+                .tags("operation", "addLike", "outcome", "error", "exception", "FilmNotFoundException")
+                .timer();
+
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+}
@@ -131,15 +131,34 @@ class InMemoryFilmRepositoryTest {
         );
     }
 
+    @Test
+    void addLike_shouldReturnFalseForRepeatedLike() {
+        userRepository.create(testUser);
+        filmRepository.create(testFilm);
+        filmRepository.addLike(1, 1);
+
+        assertFalse(filmRepository.addLike(1, 1));
+    }
+
     @Test
     void removeLike_shouldReturnFalseWhenLikeNotExists() {
+        userRepository.create(testUser);
         filmRepository.create(testFilm);
 
-        boolean result = filmRepository.removeLike(1, 999);
+        boolean result = filmRepository.removeLike(1, 1);
 
         assertFalse(result);
     }
 
+    @Test
+    void removeLike_shouldThrowWhenFilmOrUserNotExists() {
+        userRepository.create(testUser);
+        filmRepository.create(testFilm);
+
+        assertThrows(FilmNotFoundException.class, () -> filmRepository.removeLike(999, 1));
+        assertThrows(UserNotFoundException.class, () -> filmRepository.removeLike(1, 999));
+    }
+
     @Test
     void getPopularFils_shouldReturnOrderedFilmIdsByLikes() {
 
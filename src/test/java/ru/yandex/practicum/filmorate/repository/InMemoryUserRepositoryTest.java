@@ -146,15 +146,42 @@ class InMemoryUserRepositoryTest {
         );
     }
 
+    @Test
+    void addFriend_shouldReturnFalseWhenAlreadyFriends() {
+        userRepository.create(testUser);
+        testUser.setId(null);
+        userRepository.create(testUser);
+        userRepository.addFriend(1, 2);
+
+        assertFalse(userRepository.addFriend(1, 2));
+    }
+
+    @Test
+    void addFriend_shouldThrowWhenUserNotExists() {
+        userRepository.create(testUser);
+
+        assertThrows(UserNotFoundException.class, () -> userRepository.addFriend(1, 999));
+        assertThrows(UserNotFoundException.class, () -> userRepository.addFriend(999, 1));
+    }
+
     @Test
     void removeFriend_shouldReturnFalseWhenNoFriendship() {
         userRepository.create(testUser);
+        testUser.setId(null);
+        userRepository.create(testUser);
 
-        boolean result = userRepository.removeFriend(1, 999);
+        boolean result = userRepository.removeFriend(1, 2);
 
         assertFalse(result);
     }
 
+    @Test
+    void removeFriend_shouldThrowWhenUserNotExists() {
+        userRepository.create(testUser);
+
+        assertThrows(UserNotFoundException.class, () -> userRepository.removeFriend(1, 999));
+    }
+
     @Test
     void getFriends_shouldReturnFriendsList() {
         for (int i = 1; i <= 3; i++) {
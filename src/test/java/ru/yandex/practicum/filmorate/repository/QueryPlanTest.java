@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails when a hot query stops using an index after a schema or query change.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void popularFilms_shouldReadLikesCountIndexInOrder() {
+        String plan = explain(DbFilmRepository.SQL_SELECT_FILM_POPULAR, 10);
+
+        assertFalse(plan.contains(TABLE_SCAN), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void commonFriends_shouldUseIndexesOnBothSides() {
+        String plan = explain(DbUserRepository.SQL_SELECT_FRIENDSHIP_COMMON, 1, 2);
+
+        assertFalse(plan.contains(TABLE_SCAN), plan);
+    }
+
+    @Test
+    void migrations_shouldCreateHotQueryIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes", String.class);
+
+        assertTrue(indexes.containsAll(List.of(
+                "IDX_FILM_LIKE_FILM_ID", "IDX_FILM_GENRE_GENRE_ID", "IDX_FRIENDSHIP_FRIEND_ID")), indexes.toString());
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.practicum.filmorate.dto.batch.BatchItemResult;
+import ru.yandex.practicum.filmorate.dto.batch.BatchResult;
+import ru.yandex.practicum.filmorate.exception.UserValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.InMemoryUserRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchCreatorTest {
+    private BatchCreator batchCreator;
+    private InMemoryUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        batchCreator = new BatchCreator(Validation.buildDefaultValidatorFactory().getValidator());
+        userRepository = new InMemoryUserRepository();
+    }
+
+    @Test
+    void create_shouldReportInvalidItemsAndCreateValidOnes() {
+        List<User> users = Arrays.asList(user(1), user(2).toBuilder().login("bad login").build(), null, user(4));
+
+        BatchResult result = batchCreator.create(users, user -> { }, userRepository::createAll, User::getId);
+
+        assertAll("Per-item results in request order",
+                () -> assertEquals(2, result.created()),
+                () -> assertEquals(2, result.failed()),
+                () -> assertEquals(1, result.items().get(0).id()),
+                () -> assertTrue(result.items().get(1).errors().containsKey("login")),
+                () -> assertTrue(result.items().get(2).errors().containsKey("item")),
+                () -> assertEquals(2, result.items().get(3).id()),
+                () -> assertEquals(List.of(0, 1, 2, 3), result.items().stream().map(BatchItemResult::index).toList())
+        );
+    }
+
+    @Test
+    void create_shouldReportFailedReferenceCheck() {
+        BatchResult result = batchCreator.create(List.of(user(1)), user -> {
+            throw new UserValidationException("Unknown reference");
+        }, userRepository::createAll, User::getId);
+
+        assertEquals("Unknown reference", result.items().getFirst().errors().get("UserValidationException"));
+        assertTrue(userRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void create_shouldWriteValidItemsInChunks() {
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<User> users = IntStream.rangeClosed(1, BatchCreator.CHUNK_SIZE * 2 + 1)
+                .mapToObj(this::user)
+                .toList();
+
+        BatchResult result = batchCreator.create(users, user -> { }, chunk -> {
+            chunkSizes.add(chunk.size());
+            return userRepository.createAll(chunk);
+        }, User::getId);
+
+        assertEquals(List.of(BatchCreator.CHUNK_SIZE, BatchCreator.CHUNK_SIZE, 1), chunkSizes);
+        assertEquals(users.size(), result.created());
+        assertEquals(users.size(), result.items().getLast().id());
+    }
+
+    @Test
+    void create_shouldFailOnlyTheItemsOfRolledBackChunk() {
+        BatchResult result = batchCreator.create(List.of(user(1), user(2)), user -> { }, chunk -> {
+            throw new DataIntegrityViolationException("duplicate email");
+        }, User::getId);
+
+        assertEquals(2, result.failed());
+        assertNull(result.items().getFirst().id());
+        assertTrue(result.items().getFirst().errors().containsKey("DataIntegrityViolationException"));
+    }
+
+    @Test
+    void create_shouldReportLaterChunksAfterNonDatabaseFailure() {
+        List<User> users = IntStream.rangeClosed(1, BatchCreator.CHUNK_SIZE + 1)
+                .mapToObj(this::user)
+                .toList();
+
+        BatchResult result = batchCreator.create(users, user -> { }, chunk -> {
+            if (chunk.size() == 1) {
+                throw new UserValidationException("Unknown reference");
+            }
+            return userRepository.createAll(chunk);
+        }, User::getId);
+
+        assertAll("Written chunk reported, failed chunk marked",
+                () -> assertEquals(BatchCreator.CHUNK_SIZE, result.created()),
+                () -> assertEquals(1, result.failed()),
+                () -> assertTrue(result.items().getLast().errors().containsKey("UserValidationException"))
+        );
+    }
+
+    private User user(int i) {
+        return new User(null, "User " + i, "user" + i, "user" + i + "@example.com", LocalDate.of(1990, 1, 1));
+    }
+}